@@ -0,0 +1,125 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.AuditScope;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 감사 필드 채우는 비용. 회원 1000명 저장을 감사 범위 없이(엔티티마다 새 값) / 범위 안에서(한 번만) 비교함.
+ * auditor 값은 여러 스레드에서 UUID.randomUUID(SecureRandom 경합), 범위 밖 fallback, 범위 안 재사용을 비교함.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class AuditingBenchmark {
+
+    private static final int MEMBERS_PER_CALL = 1000;
+
+    @Param({"false", "true"})
+    boolean scoped;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    TransactionTemplate tx;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("auditing" + scoped);
+        memberRepository = context.getBean(MemberRepository.class);
+        tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Integer bulkSave() {
+        if (!scoped) {
+            return saveMembers();
+        }
+        try (AuditScope scope = AuditScope.open()) {
+            return saveMembers();
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String secureRandomAuditor() {
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * 범위 밖의 fallback (호출마다 ThreadLocalRandom UUID 생성)
+     */
+    @Benchmark
+    @Threads(8)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String unscopedAuditor() {
+        return AuditScope.currentAuditor();
+    }
+
+    /**
+     * 요청/배치 범위 안 (한 번 정한 값을 재사용)
+     */
+    @Benchmark
+    @Threads(8)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String scopedAuditor(OpenScope openScope) {
+        return AuditScope.currentAuditor();
+    }
+
+    /**
+     * 측정 스레드마다 반복(iteration) 동안 감사 범위를 열어둠. Thread 범위 상태라 setup/teardown 도 그 스레드에서 실행됨
+     */
+    @State(Scope.Thread)
+    public static class OpenScope {
+        AuditScope scope;
+
+        @Setup(Level.Iteration)
+        public void open() {
+            scope = AuditScope.open();
+        }
+
+        @TearDown(Level.Iteration)
+        public void close() {
+            scope.close();
+        }
+    }
+
+    private Integer saveMembers() {
+        return tx.execute(status -> {
+            for (int i = 0; i < MEMBERS_PER_CALL; i++) {
+                memberRepository.save(new Member("audit" + i, i % 100));
+            }
+            memberRepository.flush();
+            status.setRollbackOnly();
+            return MEMBERS_PER_CALL;
+        });
+    }
+}
@@ -0,0 +1,111 @@
+package study.datajpa.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.DataJpaApplication;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 벤치마크용 스프링 컨텍스트. 인메모리 H2 에 데이터를 채워서 띄움 (p6spy, SQL 로그는 끔, 웹 서버는 startWeb 만).
+ */
+final class BenchmarkContext {
+
+    static final int TEAM_COUNT = 100;
+    static final int SEED_BATCH_SIZE = 1000;
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(String databaseName, Map<String, Object> extraProperties) {
+        return start(databaseName, extraProperties, WebApplicationType.NONE);
+    }
+
+    /**
+     * HTTP 엔드포인트 벤치마크용. 임의 포트로 톰캣을 띄움 (포트는 port(context))
+     */
+    static ConfigurableApplicationContext startWeb(String databaseName) {
+        return start(databaseName, Map.of("server.port", 0), WebApplicationType.SERVLET);
+    }
+
+    static int port(ConfigurableApplicationContext context) {
+        return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    private static ConfigurableApplicationContext start(String databaseName, Map<String, Object> extraProperties,
+                                                        WebApplicationType webApplicationType) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("spring.datasource.url", "jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1");
+        properties.put("spring.jpa.hibernate.ddl-auto", "create");
+        properties.put("spring.jpa.properties.hibernate.show_sql", "false");
+        properties.put("spring.jpa.properties.hibernate.format_sql", "false");
+        properties.put("spring.jpa.open-in-view", "false");
+        properties.put("decorator.datasource.enabled", "false");
+        properties.put("logging.level.root", "warn");
+        properties.put("logging.level.org.hibernate.sql", "warn");
+        properties.putAll(extraProperties);
+
+        return new SpringApplicationBuilder(DataJpaApplication.class)
+                .web(webApplicationType)
+                .properties(properties)
+                .run();
+    }
+
+    static ConfigurableApplicationContext start(String databaseName) {
+        return start(databaseName, Map.of());
+    }
+
+    /**
+     * 팀 100개와 회원 rows 명을 저장함. 나이는 0~99 로 고르게 분포.
+     */
+    static void seed(ConfigurableApplicationContext context, int rows) {
+        TransactionTemplate tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        TeamRepository teamRepository = context.getBean(TeamRepository.class);
+        MemberRepository memberRepository = context.getBean(MemberRepository.class);
+
+        List<Team> teams = tx.execute(status -> {
+            List<Team> saved = new ArrayList<>();
+            for (int i = 0; i < TEAM_COUNT; i++) {
+                saved.add(teamRepository.save(new Team("team" + i)));
+            }
+            return saved;
+        });
+
+        for (int from = 0; from < rows; from += SEED_BATCH_SIZE) {
+            int start = from;
+            int end = Math.min(rows, from + SEED_BATCH_SIZE);
+            tx.executeWithoutResult(status -> memberRepository.saveAllBatched(() -> members(teams, start, end), SEED_BATCH_SIZE));
+        }
+    }
+
+    private static Iterator<Member> members(List<Team> teams, int from, int to) {
+        return new Iterator<>() {
+            private int next = from;
+
+            @Override
+            public boolean hasNext() {
+                return next < to;
+            }
+
+            @Override
+            public Member next() {
+                int i = next++;
+                //팀 컬렉션에 쌓이지 않도록 changeTeam 대신 setTeam 사용
+                Member member = new Member("member" + i, i % 100);
+                member.setTeam(teams.get(i % teams.size()));
+                return member;
+            }
+        };
+    }
+}
@@ -0,0 +1,106 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import study.datajpa.repository.MemberRepository;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 동기(/members) 와 비동기(/async/members) 엔드포인트를 동시 요청 64개로 비교함.
+ * 비동기 쪽은 DB 스레드 풀 큐가 차면 503 으로 거절하므로(백프레셔) 거절 수를 보조 카운터(rejected)로 같이 봄.
+ * ./gradlew jmh -Pjmh.includes=MemberEndpointBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(64)
+public class MemberEndpointBenchmark {
+
+    @Param({"/members", "/async/members"})
+    String basePath;
+
+    ConfigurableApplicationContext context;
+    HttpClient client;
+    HttpRequest findMember;
+    HttpRequest list;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.startWeb("endpoint" + basePath.replace('/', '_'));
+        BenchmarkContext.seed(context, 10_000);
+        Long id = context.getBean(MemberRepository.class)
+                .findAll(PageRequest.of(0, 1, Sort.by("id"))).getContent().get(0).getId();
+
+        String base = "http://localhost:" + BenchmarkContext.port(context) + basePath;
+        client = HttpClient.newHttpClient();
+        findMember = HttpRequest.newBuilder(URI.create(base + "/" + id)).GET().build();
+        list = HttpRequest.newBuilder(URI.create(base + "?page=0&size=20")).GET().build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int findMember(Statuses statuses) throws IOException, InterruptedException {
+        return statuses.record(client.send(findMember, HttpResponse.BodyHandlers.discarding()).statusCode());
+    }
+
+    @Benchmark
+    public int list(Statuses statuses) throws IOException, InterruptedException {
+        return statuses.record(client.send(list, HttpResponse.BodyHandlers.discarding()).statusCode());
+    }
+
+    /**
+     * 응답 코드별 횟수 (JMH 결과에 ok, rejected 로 같이 나옴)
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Statuses {
+        public long ok;
+        public long rejected;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            ok = 0;
+            rejected = 0;
+        }
+
+        int record(int status) {
+            if (status == 200) {
+                ok++;
+            } else if (status == 503) {
+                rejected++;
+            } else {
+                throw new IllegalStateException("예상하지 못한 응답 코드: " + status);
+            }
+            return status;
+        }
+    }
+}
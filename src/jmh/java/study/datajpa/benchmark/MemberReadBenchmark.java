@@ -0,0 +1,113 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 조회 경로 벤치마크. 처리량(thrpt)과 지연시간 분포(sample, p50~p99.9)를 같이 측정함.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class MemberReadBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"10000", "100000", "1000000"})
+    int rows;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    TransactionTemplate readOnlyTx;
+    long minId;
+    long maxId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("read" + rows);
+        BenchmarkContext.seed(context, rows);
+
+        memberRepository = context.getBean(MemberRepository.class);
+        readOnlyTx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTx.setReadOnly(true);
+
+        List<Member> first = memberRepository.findAll(PageRequest.of(0, 1, Sort.by("id"))).getContent();
+        minId = first.get(0).getId();
+        maxId = minId + rows - 1;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object findById() {
+        long id = ThreadLocalRandom.current().nextLong(minId, maxId + 1);
+        return memberRepository.findById(id);
+    }
+
+    @Benchmark
+    public Object findAllPageShallow() {
+        return memberRepository.findAll(PageRequest.of(0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Object findAllPageDeep() {
+        return memberRepository.findAll(PageRequest.of(rows / PAGE_SIZE - 1, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public List<MemberDto> findMemberDto() {
+        return memberRepository.findMemberDto();
+    }
+
+    /**
+     * findMemberDto 와 비교용. 엔티티로 전부 읽어서 DTO 로 바꿈 (영속성 컨텍스트 + 스냅샷 비용 포함)
+     */
+    @Benchmark
+    public Object findEntitiesThenMap() {
+        return readOnlyTx.execute(status -> {
+            List<Member> members = memberRepository.findMemberFetchJoin();
+            return members.stream()
+                    .map(m -> new MemberDto(m.getId(), m.getUsername(), m.getTeam() != null ? m.getTeam().getName() : null))
+                    .count();
+        });
+    }
+
+    @Benchmark
+    public List<Member> findMemberFetchJoin() {
+        return memberRepository.findMemberFetchJoin();
+    }
+
+    @Benchmark
+    public List<Member> findAllEntityGraph() {
+        return memberRepository.findAll();
+    }
+}
@@ -0,0 +1,87 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 회원 1000명 저장. jdbcBatchSize=1 이면 JDBC 배치가 꺼진 상태와 같음.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class MemberSaveBenchmark {
+
+    private static final int MEMBERS_PER_CALL = 1000;
+
+    @Param({"1", "100"})
+    int jdbcBatchSize;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    TransactionTemplate tx;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("save" + jdbcBatchSize,
+                Map.of("spring.jpa.properties.hibernate.jdbc.batch_size", String.valueOf(jdbcBatchSize)));
+        memberRepository = context.getBean(MemberRepository.class);
+        tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Integer saveOneByOne() {
+        return tx.execute(status -> {
+            for (Member member : newMembers()) {
+                memberRepository.save(member);
+            }
+            status.setRollbackOnly();
+            return MEMBERS_PER_CALL;
+        });
+    }
+
+    @Benchmark
+    public Integer saveAllBatched() {
+        return tx.execute(status -> {
+            int count = memberRepository.saveAllBatched(newMembers(), Math.max(jdbcBatchSize, 1));
+            status.setRollbackOnly();
+            return count;
+        });
+    }
+
+    private static List<Member> newMembers() {
+        List<Member> members = new ArrayList<>(MEMBERS_PER_CALL);
+        for (int i = 0; i < MEMBERS_PER_CALL; i++) {
+            members.add(new Member("save" + i, i % 100));
+        }
+        return members;
+    }
+}
@@ -0,0 +1,89 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 벌크 업데이트 vs 엔티티 하나씩 변경 감지 업데이트.
+ * 매 호출마다 롤백해서 데이터가 바뀌지 않게 함.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class MemberWriteBenchmark {
+
+    /**
+     * 나이 0~99 가 고르게 분포하니 약 10% 의 회원이 대상
+     */
+    private static final int AGE_THRESHOLD = 90;
+
+    @Param({"10000", "100000", "1000000"})
+    int rows;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    EntityManager em;
+    TransactionTemplate tx;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("write" + rows);
+        BenchmarkContext.seed(context, rows);
+
+        memberRepository = context.getBean(MemberRepository.class);
+        em = context.getBean(EntityManager.class);
+        tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Integer bulkAgePlus() {
+        return tx.execute(status -> {
+            int count = memberRepository.bulkAgePlus(AGE_THRESHOLD);
+            status.setRollbackOnly();
+            return count;
+        });
+    }
+
+    @Benchmark
+    public Integer entityByEntityAgePlus() {
+        return tx.execute(status -> {
+            List<Member> members = em.createQuery("select m from Member m where m.age >= :age", Member.class)
+                    .setParameter("age", AGE_THRESHOLD)
+                    .getResultList();
+            for (Member member : members) {
+                member.setAge(member.getAge() + 1);
+            }
+            em.flush();
+            status.setRollbackOnly();
+            return members.size();
+        });
+    }
+}
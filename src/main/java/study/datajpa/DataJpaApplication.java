@@ -2,24 +2,38 @@ package study.datajpa;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.context.annotation.Bean;
+import org.springframework.data.auditing.DateTimeProvider;
 import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import study.datajpa.entity.AuditScope;
 
 import java.util.Optional;
-import java.util.UUID;
 
-@EnableJpaAuditing
+@EnableJpaAuditing(dateTimeProviderRef = "auditingDateTimeProvider")
+@EnableScheduling	//TeamMemberCounter 주기적 반영
 @SpringBootApplication
 public class DataJpaApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(DataJpaApplication.class, args);
+		SpringApplication application = new SpringApplication(DataJpaApplication.class);
+		application.setApplicationStartup(new BufferingApplicationStartup(10000));	//기동 단계별 시간 기록 (StartupReport, /actuator/startup)
+		application.run(args);
 	}
 
+	/**
+	 * 요청/배치 단위로 한 번 정한 값을 재사용함 (AuditScope 참고)
+	 */
 	@Bean
 	public AuditorAware<String> auditorAware() {
-		return () -> Optional.of(UUID.randomUUID().toString());
+		return () -> Optional.of(AuditScope.currentAuditor());
+	}
+
+	@Bean
+	public DateTimeProvider auditingDateTimeProvider() {
+		return () -> Optional.of(AuditScope.now());
 	}
 
 }
@@ -0,0 +1,70 @@
+package study.datajpa.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * DB 호출 전용 스레드 풀. 커넥션 풀보다 많은 스레드는 어차피 커넥션을 기다리기만 하므로 풀 크기에 맞춤.
+ * 큐까지 차면 TaskRejectedException 으로 바로 거절해서(503) 요청이 무한정 쌓이지 않게 함.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    public static final String DB_EXECUTOR = "dbExecutor";
+    private static final String DB_THREAD_PREFIX = "db-";
+
+    private static final int DEFAULT_POOL_SIZE = 10;    //HikariCP 기본값
+
+    @Bean(name = DB_EXECUTOR)
+    public ThreadPoolTaskExecutor dbExecutor(DataSource dataSource,
+                                             @Value("${datajpa.async.queue-capacity:200}") int queueCapacity) {
+        int connectionPoolSize = connectionPoolSize(dataSource);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(connectionPoolSize);
+        executor.setMaxPoolSize(connectionPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(DB_THREAD_PREFIX);
+        return executor;
+    }
+
+    /**
+     * dbExecutor 작업 안에서 다시 dbExecutor 에 작업을 넣고 기다리면 풀이 찼을 때 서로 기다리다 멈출 수 있음
+     */
+    public static boolean isDbExecutorThread() {
+        return Thread.currentThread().getName().startsWith(DB_THREAD_PREFIX);
+    }
+
+    /**
+     * perf 프로필처럼 풀 크기를 코드에서 정하는 경우도 있어서 설정값 대신 실제 풀에서 읽음
+     */
+    private static int connectionPoolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            //풀 정보를 모르면 기본값 사용
+        }
+        return DEFAULT_POOL_SIZE;
+    }
+
+    /**
+     * 위에서 Executor 빈을 등록하면 스프링 부트 기본 applicationTaskExecutor 가 빠지기 때문에 같은 설정으로 다시 등록함
+     * (MVC 비동기 처리, StreamingResponseBody 가 사용)
+     */
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    @Primary
+    public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+        return builder.build();
+    }
+}
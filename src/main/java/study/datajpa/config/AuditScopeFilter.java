@@ -0,0 +1,26 @@
+package study.datajpa.config;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import study.datajpa.entity.AuditScope;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * HTTP 요청 하나를 하나의 감사(auditing) 범위로 묶음
+ */
+@Component
+public class AuditScopeFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try (AuditScope scope = AuditScope.open()) {
+            filterChain.doFilter(request, response);
+        }
+    }
+}
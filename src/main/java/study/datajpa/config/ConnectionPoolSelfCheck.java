@@ -0,0 +1,61 @@
+package study.datajpa.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.data.web.SpringDataWebProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * 기동 시 설정 점검. 한 요청이 최대 max-page-size 건을 읽는 동안 커넥션을 오래 잡고 있기 때문에
+ * 톰캣 스레드 수가 커넥션 풀보다 훨씬 많으면 큰 페이지 요청이 몰릴 때 커넥션이 바닥남.
+ * 웹 요청 기준 점검이라 서블릿 웹 애플리케이션에서만 등록 (SpringDataWebProperties 도 그때만 있음, JMH 컨텍스트는 웹 아님)
+ */
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequiredArgsConstructor
+public class ConnectionPoolSelfCheck {
+
+    private final DataSource dataSource;
+    private final SpringDataWebProperties springDataWebProperties;
+
+    @Value("${server.tomcat.threads.max:200}")
+    private int tomcatMaxThreads;
+
+    @Value("${datajpa.pool.large-page-threshold:1000}")
+    private int largePageThreshold;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void check() {
+        int poolSize = poolSize();
+        int maxPageSize = springDataWebProperties.getPageable().getMaxPageSize();
+        if (poolSize <= 0) {
+            return;
+        }
+
+        if (maxPageSize >= largePageThreshold && tomcatMaxThreads > poolSize) {
+            log.warn("커넥션 고갈 위험: max-page-size={} 인 요청이 동시에 {}개 이상 들어오면 나머지 요청은 커넥션을 기다립니다. " +
+                            "(tomcat threads={}, pool size={}) max-page-size 를 줄이거나 /members/keyset, /members/slice 사용을 고려하세요.",
+                    maxPageSize, poolSize, tomcatMaxThreads, poolSize);
+        }
+    }
+
+    private int poolSize() {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            log.debug("커넥션 풀 정보를 가져올 수 없습니다", e);
+        }
+        return -1;
+    }
+}
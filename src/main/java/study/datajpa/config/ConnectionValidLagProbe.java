@@ -0,0 +1,25 @@
+package study.datajpa.config;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+/**
+ * 기본 구현. 복제 지연을 알 수 없는 DB(H2 등)용으로 연결이 살아있으면 지연 0 으로 봄.
+ */
+public class ConnectionValidLagProbe implements ReplicaLagProbe {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
+    @Override
+    public Duration measureLag(DataSource replica) throws SQLException {
+        try (Connection connection = replica.getConnection()) {
+            if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                throw new SQLTransientConnectionException("레플리카 연결이 유효하지 않습니다");
+            }
+            return Duration.ZERO;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package study.datajpa.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * datajpa.datasource.routing-enabled=true 일 때 프라이머리/레플리카 라우팅 DataSource 를 등록함.
+ * 프라이머리는 기존 spring.datasource.* 설정을 그대로 사용함.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(ReplicaDataSourceProperties.class)
+@ConditionalOnProperty(name = "datajpa.datasource.routing-enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    private ReplicationRoutingDataSource routingDataSource;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ReplicaLagProbe replicaLagProbe() {
+        return new ConnectionValidLagProbe();
+    }
+
+    @Bean
+    public ReplicationRoutingDataSource replicationRoutingDataSource(HikariDataSource primaryDataSource,
+                                                                     ReplicaDataSourceProperties properties,
+                                                                     ReplicaLagProbe replicaLagProbe,
+                                                                     ObjectProvider<MeterRegistry> meterRegistry) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (ReplicaDataSourceProperties.Replica replica : properties.getReplicas()) {
+            replicas.put(replica.getName(), replicaDataSource(replica, primaryDataSource, meterRegistry.getIfAvailable()));
+        }
+        routingDataSource = new ReplicationRoutingDataSource(primaryDataSource, replicas,
+                properties.getBalancing(), replicaLagProbe, properties.getMaxLag());
+        return routingDataSource;
+    }
+
+    /**
+     * JPA 가 사용하는 DataSource. 트랜잭션 시작 시점이 아니라 첫 쿼리 시점에 커넥션을 가져옴
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicationRoutingDataSource replicationRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicationRoutingDataSource);
+    }
+
+    @Scheduled(fixedDelayString = "${datajpa.datasource.health-check-interval-ms:5000}")
+    public void checkReplicas() {
+        if (routingDataSource != null) {
+            routingDataSource.refreshReplicaHealth();
+        }
+    }
+
+    /**
+     * 빈이 아니라서 부트의 Hikari 메트릭 등록을 받지 못하므로 직접 붙임 (hikaricp.connections{pool=replica-xxx}).
+     * 닫는 것은 ReplicationRoutingDataSource.destroy
+     */
+    private static HikariDataSource replicaDataSource(ReplicaDataSourceProperties.Replica replica, HikariDataSource primary,
+                                                      MeterRegistry meterRegistry) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica-" + replica.getName());
+        dataSource.setJdbcUrl(replica.getUrl());
+        dataSource.setUsername(replica.getUsername() != null ? replica.getUsername() : primary.getUsername());
+        dataSource.setPassword(replica.getPassword() != null ? replica.getPassword() : primary.getPassword());
+        dataSource.setDriverClassName(primary.getDriverClassName());
+        dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+        dataSource.setReadOnly(true);
+        if (meterRegistry != null) {
+            dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        }
+        return dataSource;
+    }
+}
@@ -0,0 +1,49 @@
+package study.datajpa.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * perf 프로필에서 커넥션 풀 크기를 CPU 코어 수로 정함.
+ * HikariCP 권장 공식 (코어 수 * 2 + 1) 을 쓰되 예상 동시 요청 수보다 크게 잡지는 않음.
+ * spring.datasource.hikari.maximum-pool-size 를 직접 지정했으면 그 값을 그대로 씀.
+ */
+@Slf4j
+@Component
+@Profile("perf")
+public class HikariPoolSizingPostProcessor implements BeanPostProcessor, EnvironmentAware {
+
+    private static final String MAXIMUM_POOL_SIZE = "spring.datasource.hikari.maximum-pool-size";
+
+    private Environment environment;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource && !environment.containsProperty(MAXIMUM_POOL_SIZE)) {
+            int cores = Runtime.getRuntime().availableProcessors();
+            int expectedConcurrency = environment.getProperty("datajpa.pool.expected-concurrency", Integer.class, Integer.MAX_VALUE);
+            int poolSize = recommendedPoolSize(cores, expectedConcurrency);
+
+            HikariDataSource dataSource = (HikariDataSource) bean;
+            dataSource.setMaximumPoolSize(poolSize);
+            dataSource.setMinimumIdle(poolSize);     //고정 크기 풀 (HikariCP 권장)
+            log.info("커넥션 풀 크기 설정 pool={}, size={}, cores={}, expectedConcurrency={}",
+                    beanName, poolSize, cores, expectedConcurrency);
+        }
+        return bean;
+    }
+
+    static int recommendedPoolSize(int cores, int expectedConcurrency) {
+        return Math.max(2, Math.min(cores * 2 + 1, expectedConcurrency));
+    }
+}
@@ -0,0 +1,30 @@
+package study.datajpa.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "datajpa.datasource")
+public class ReplicaDataSourceProperties {
+
+    private boolean routingEnabled = false;
+    private ReplicationRoutingDataSource.Balancing balancing = ReplicationRoutingDataSource.Balancing.ROUND_ROBIN;
+    private Duration maxLag = Duration.ofSeconds(5);
+    private List<Replica> replicas = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Replica {
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,17 @@
+package study.datajpa.config;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * 레플리카 지연 시간 측정. DB마다 방법이 달라서 빈으로 교체할 수 있게 분리함
+ * (예: PostgreSQL 은 now() - pg_last_xact_replay_timestamp())
+ */
+public interface ReplicaLagProbe {
+
+    /**
+     * @throws SQLException 레플리카에 연결할 수 없을 때
+     */
+    Duration measureLag(DataSource replica) throws SQLException;
+}
@@ -0,0 +1,133 @@
+package study.datajpa.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * readOnly 트랜잭션은 레플리카로, 나머지는 프라이머리로 보냄.
+ * 트랜잭션이 시작된 뒤에 커넥션을 가져와야 readOnly 여부를 알 수 있으므로
+ * 반드시 LazyConnectionDataSourceProxy 로 감싸서 사용해야 함.
+ * 지연이 maxLag 를 넘거나 연결이 안 되는 레플리카는 빼고, 남은 레플리카가 없으면 프라이머리로 보냄.
+ * 레플리카 풀은 빈이 아니라서 컨텍스트 종료 시 여기서 닫음 (프라이머리는 빈이라 스프링이 닫음)
+ */
+@Slf4j
+public class ReplicationRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    public static final String PRIMARY = "primary";
+
+    public enum Balancing {
+        ROUND_ROBIN, LEAST_CONNECTIONS
+    }
+
+    private final Map<String, DataSource> replicas;
+    private final Balancing balancing;
+    private final ReplicaLagProbe lagProbe;
+    private final Duration maxLag;
+    private final AtomicInteger counter = new AtomicInteger();
+    private volatile List<String> healthyReplicas;
+
+    public ReplicationRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Balancing balancing,
+                                        ReplicaLagProbe lagProbe, Duration maxLag) {
+        this.replicas = new LinkedHashMap<>(replicas);
+        this.balancing = balancing;
+        this.lagProbe = lagProbe;
+        this.maxLag = maxLag;
+        this.healthyReplicas = new ArrayList<>(replicas.keySet());
+
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        List<String> candidates = healthyReplicas;
+        if (candidates.isEmpty()) {
+            return PRIMARY;     //쓸 수 있는 레플리카가 없으면 프라이머리에서 읽음
+        }
+        if (balancing == Balancing.LEAST_CONNECTIONS) {
+            return leastConnections(candidates);
+        }
+        return candidates.get(Math.floorMod(counter.getAndIncrement(), candidates.size()));
+    }
+
+    /**
+     * 레플리카별 지연을 다시 측정해서 라우팅 대상을 갱신함 (주기적으로 호출)
+     */
+    public void refreshReplicaHealth() {
+        List<String> healthy = new ArrayList<>();
+        for (Map.Entry<String, DataSource> replica : replicas.entrySet()) {
+            try {
+                Duration lag = lagProbe.measureLag(replica.getValue());
+                if (lag.compareTo(maxLag) <= 0) {
+                    healthy.add(replica.getKey());
+                } else {
+                    log.warn("레플리카 지연이 커서 라우팅에서 제외합니다. replica={}, lag={}", replica.getKey(), lag);
+                }
+            } catch (SQLException | RuntimeException e) {
+                log.warn("레플리카에 연결할 수 없어 라우팅에서 제외합니다. replica={}, error={}", replica.getKey(), e.getMessage());
+            }
+        }
+        healthyReplicas = healthy;
+    }
+
+    @Override
+    public void destroy() {
+        for (Map.Entry<String, DataSource> replica : replicas.entrySet()) {
+            if (replica.getValue() instanceof Closeable) {
+                try {
+                    ((Closeable) replica.getValue()).close();
+                } catch (IOException e) {
+                    log.warn("레플리카 커넥션 풀을 닫지 못했습니다. replica={}", replica.getKey(), e);
+                }
+            }
+        }
+    }
+
+    public List<String> getHealthyReplicas() {
+        return healthyReplicas;
+    }
+
+    private String leastConnections(List<String> candidates) {
+        String selected = null;
+        int min = Integer.MAX_VALUE;
+        for (String key : candidates) {
+            int active = activeConnections(replicas.get(key));
+            if (active < min) {
+                min = active;
+                selected = key;
+            }
+        }
+        return selected;
+    }
+
+    private static int activeConnections(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource) {
+            HikariPoolMXBean pool = ((HikariDataSource) dataSource).getHikariPoolMXBean();
+            if (pool != null) {
+                return pool.getActiveConnections();
+            }
+        }
+        return 0;   //풀 정보를 모르면 동일하게 취급
+    }
+}
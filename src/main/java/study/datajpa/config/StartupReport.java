@@ -0,0 +1,75 @@
+package study.datajpa.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 기동 시간 리포트. main 에서 BufferingApplicationStartup 을 설정한 경우에만 동작함 (테스트에서는 생략)
+ * 리포지토리별 초기화 시간, 엔티티 매핑(EntityManagerFactory) 시간, 가장 느린 빈들을 로그로 남김.
+ * 같은 내용은 /actuator/startup 으로도 볼 수 있음 (buffer 를 비우지 않도록 getBufferedTimeline 만 사용)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StartupReport {
+
+    private static final String BEAN_INSTANTIATE = "spring.beans.instantiate";
+    private static final String REPOSITORY_INIT = "spring.data.repository.init";
+    private static final int SLOWEST_BEANS = 10;
+
+    private final ApplicationStartup applicationStartup;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report() {
+        if (!(applicationStartup instanceof BufferingApplicationStartup)) {
+            return;
+        }
+        StartupTimeline timeline = ((BufferingApplicationStartup) applicationStartup).getBufferedTimeline();
+        List<StartupTimeline.TimelineEvent> events = timeline.getEvents();
+
+        log.info("startup report: {} steps buffered", events.size());
+
+        events.stream()
+                .filter(event -> REPOSITORY_INIT.equals(event.getStartupStep().getName()))
+                .sorted(slowestFirst())
+                .forEach(event -> log.info("  repository {} : {}ms", tag(event, "repository"), event.getDuration().toMillis()));
+
+        events.stream()
+                .filter(event -> BEAN_INSTANTIATE.equals(event.getStartupStep().getName()))
+                .filter(event -> "entityManagerFactory".equals(tag(event, "beanName")))
+                .forEach(event -> log.info("  entity mapping (entityManagerFactory) : {}ms", event.getDuration().toMillis()));
+
+        List<String> slowest = events.stream()
+                .filter(event -> BEAN_INSTANTIATE.equals(event.getStartupStep().getName()))
+                .sorted(slowestFirst())
+                .limit(SLOWEST_BEANS)
+                .map(event -> tag(event, "beanName") + "=" + event.getDuration().toMillis() + "ms")
+                .collect(Collectors.toList());
+        log.info("  slowest beans : {}", slowest);
+    }
+
+    private static Comparator<StartupTimeline.TimelineEvent> slowestFirst() {
+        return Comparator.comparing(StartupTimeline.TimelineEvent::getDuration, Comparator.<Duration>reverseOrder());
+    }
+
+    private static String tag(StartupTimeline.TimelineEvent event, String key) {
+        for (StartupStep.Tag tag : event.getStartupStep().getTags()) {
+            if (key.equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return "?";
+    }
+}
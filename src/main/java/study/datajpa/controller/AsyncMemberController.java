@@ -0,0 +1,50 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.service.MemberAsyncService;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * MemberController 의 비동기 버전. 요청 스레드를 DB 호출 동안 잡고 있지 않음
+ */
+@RestController
+@RequiredArgsConstructor
+public class AsyncMemberController {
+
+    private final MemberAsyncService memberAsyncService;
+
+    @GetMapping("/async/members/{id}")
+    public CompletableFuture<ResponseEntity<String>> findMember(@PathVariable("id") Long id) {
+        return memberAsyncService.findUsername(id)
+                .thenApply(username -> username
+                        .map(ResponseEntity::ok)
+                        .orElseGet(() -> ResponseEntity.notFound().build()));
+    }
+
+    @GetMapping("/async/members")
+    public CompletableFuture<Page<MemberDto>> list(Pageable pageable) {
+        return memberAsyncService.findMemberDtoPage(pageable);
+    }
+
+    /**
+     * DB 스레드 풀 큐가 꽉 찼을 때. 대기열을 더 늘리지 않고 클라이언트가 다시 시도하게 함
+     */
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<Void> rejected() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
+    }
+}
@@ -3,41 +3,102 @@ package study.datajpa.controller;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberSearchCondition;
+import study.datajpa.dto.MemberSnapshot;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.Cursor;
 import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.Window;
 
 import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
+    private static final int MAX_KEYSET_SIZE = 2000;     //max-page-size 와 맞춤
+
     private final MemberRepository memberRepository;
+    private final MemberSnapshotResolver memberSnapshotResolver;
 
     @GetMapping("/members/{id}")
     public String findMember(@PathVariable("id") Long id) {
-        Member member = memberRepository.findById(id).get();
+        Member member = memberRepository.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
         return member.getUsername();
     }
 
+    /**
+     * 캐시된 스냅샷으로 응답. If-None-Match / If-Modified-Since 가 맞으면 304 (본문 없음)
+     */
     @GetMapping("/members2/{id}")
-    public String findMember2(@PathVariable("id") Member member) {
+    public String findMember2(@PathVariable("id") Long id, WebRequest request) {
+        MemberSnapshot member = memberSnapshotResolver.resolve(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        if (request.checkNotModified(member.getETag(), member.lastModifiedMillis())) {
+            return null;
+        }
         return member.getUsername();
     }
 
     @GetMapping("/members")
     public Page<MemberDto> list(Pageable pageable) {
-        return memberRepository.findAll(pageable)
+        return memberRepository.findMemberDtoPage(pageable);     //엔티티 대신 DTO 로 바로 조회
+    }
+
+    /**
+     * 예) /members/search?usernamePrefix=user&ageGoe=10&teamName=teamA&sort=age,desc
+     */
+    @GetMapping("/members/search")
+    public Page<MemberDto> search(MemberSearchCondition condition, Pageable pageable) {
+        try {
+            return memberRepository.search(condition, pageable);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());    //허용하지 않은 정렬 속성
+        }
+    }
+
+    /**
+     * 전체 개수가 필요 없는 화면용. count 쿼리를 날리지 않음
+     */
+    @GetMapping("/members/slice")
+    public Slice<MemberDto> slice(Pageable pageable) {
+        return memberRepository.findSliceBy(pageable)
                 .map(member -> new MemberDto(member));
     }
+
+    /**
+     * 키셋 페이징 모드. 응답의 nextCursor 를 다음 요청의 cursor 로 넘기면 됨
+     * offset, count 쿼리가 없어서 깊은 페이지도 첫 페이지와 같은 비용
+     */
+    @GetMapping("/members/keyset")
+    public Window<MemberDto> listByKeyset(@RequestParam(value = "cursor", required = false) String cursor,
+                                          @RequestParam(value = "size", defaultValue = "10") int size) {
+        try {
+            return memberRepository.findAll(Cursor.decode(cursor), Math.max(1, Math.min(size, MAX_KEYSET_SIZE)))
+                    .map(member -> new MemberDto(member));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());    //잘못된 cursor
+        }
+    }
+
 //    @PostConstruct
     public void init() {
+        List<Member> members = new ArrayList<>();
         for (int i = 0; i < 100; i++) {
-            memberRepository.save(new Member("user" + i));
+            members.add(new Member("user" + i));
         }
+        memberRepository.saveAllBatched(members, 100);
     }
 }
@@ -0,0 +1,36 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import study.datajpa.service.MemberExportService;
+
+@RestController
+@RequiredArgsConstructor
+public class MemberExportController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
+    private final MemberExportService memberExportService;
+
+    /**
+     * 전체 회원 내보내기 (format = ndjson | csv).
+     * 응답은 별도 스레드에서 쓰여지고 트랜잭션도 그 안에서 열림
+     */
+    @GetMapping("/members/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        if ("csv".equalsIgnoreCase(format)) {
+            return ResponseEntity.ok()
+                    .contentType(CSV)
+                    .body(memberExportService::exportCsv);
+        }
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(memberExportService::exportNdjson);
+    }
+}
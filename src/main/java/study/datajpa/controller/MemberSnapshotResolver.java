@@ -0,0 +1,55 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import study.datajpa.dto.MemberSnapshot;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.MemberSnapshotCache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * DomainClassConverter 대신 쓰는 Member 조회기.
+ * 1. 같은 요청 안에서는 요청 속성에 memo 해두고 재사용
+ * 2. 요청 사이에는 MemberSnapshotCache 를 사용
+ * 3. 둘 다 없으면 엔티티 대신 스냅샷 컬럼만 조회
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberSnapshotResolver {
+
+    private static final String MEMO_ATTRIBUTE = MemberSnapshotResolver.class.getName() + ".memo";
+
+    private final MemberRepository memberRepository;
+    private final MemberSnapshotCache memberSnapshotCache;
+
+    public Optional<MemberSnapshot> resolve(Long id) {
+        Map<Long, Optional<MemberSnapshot>> memo = requestMemo();
+        if (memo == null) {
+            return load(id);
+        }
+        return memo.computeIfAbsent(id, this::load);
+    }
+
+    private Optional<MemberSnapshot> load(Long id) {
+        return memberSnapshotCache.get(id, memberRepository::findSnapshotById);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, Optional<MemberSnapshot>> requestMemo() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;        //요청 밖 (배치, 테스트 등)
+        }
+        Object memo = attributes.getAttribute(MEMO_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (memo == null) {
+            memo = new HashMap<Long, Optional<MemberSnapshot>>();
+            attributes.setAttribute(MEMO_ATTRIBUTE, memo, RequestAttributes.SCOPE_REQUEST);
+        }
+        return (Map<Long, Optional<MemberSnapshot>>) memo;
+    }
+}
@@ -0,0 +1,24 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.dto.TeamDto;
+import study.datajpa.repository.TeamRepository;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+    private final TeamRepository teamRepository;
+
+    /**
+     * 회원 수는 team.member_count 컬럼을 그대로 읽음 (members 로딩이나 count 집계 없음)
+     */
+    @GetMapping("/teams")
+    public Page<TeamDto> list(Pageable pageable) {
+        return teamRepository.findTeamDtoPage(pageable);
+    }
+}
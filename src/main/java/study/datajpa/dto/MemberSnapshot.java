@@ -0,0 +1,33 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * 캐시에 넣어두는 Member 읽기 전용 스냅샷. 영속성 컨텍스트와 무관해서 요청/스레드 사이에 공유해도 안전함
+ */
+@Getter
+public final class MemberSnapshot {
+    private final Long id;
+    private final String username;
+    private final LocalDateTime lastModifiedDate;
+
+    public MemberSnapshot(Long id, String username, LocalDateTime lastModifiedDate) {
+        this.id = id;
+        this.username = username;
+        this.lastModifiedDate = lastModifiedDate;
+    }
+
+    /**
+     * 조건부 GET 용. 수정될 때마다 lastModifiedDate 가 바뀌므로 버전 역할을 함
+     */
+    public String getETag() {
+        return "\"" + id + "-" + lastModifiedMillis() + "\"";
+    }
+
+    public long lastModifiedMillis() {
+        return lastModifiedDate == null ? -1 : lastModifiedDate.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
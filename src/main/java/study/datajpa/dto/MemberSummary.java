@@ -0,0 +1,13 @@
+package study.datajpa.dto;
+
+/**
+ * 인터페이스 기반 Closed 프로젝션. 엔티티 대신 필요한 컬럼만 조회함
+ * (쿼리의 별칭 id, username, teamName 과 getter 이름이 맞아야 함)
+ */
+public interface MemberSummary {
+    Long getId();
+
+    String getUsername();
+
+    String getTeamName();
+}
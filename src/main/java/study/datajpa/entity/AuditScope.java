@@ -0,0 +1,78 @@
+package study.datajpa.entity;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 작업 단위(HTTP 요청, 배치 저장) 동안 등록자/수정자와 시간을 한 번만 구해서 모든 엔티티에 같이 씀.
+ * 엔티티마다 UUID.randomUUID() (SecureRandom) 와 LocalDateTime.now() 를 호출하지 않게 하기 위함.
+ *
+ * try (AuditScope scope = AuditScope.open()) { ... }
+ *
+ * 이미 열린 범위 안에서 다시 open 하면 바깥 범위의 값을 그대로 씀.
+ */
+public final class AuditScope implements AutoCloseable {
+
+    private static final ThreadLocal<AuditScope> current = new ThreadLocal<>();
+
+    private final String auditor;
+    private final LocalDateTime now;
+    private final AuditScope previous;
+
+    private AuditScope(String auditor, LocalDateTime now, AuditScope previous) {
+        this.auditor = auditor;
+        this.now = now;
+        this.previous = previous;
+    }
+
+    public static AuditScope open() {
+        AuditScope outer = current.get();
+        if (outer != null) {
+            return open(outer.auditor, outer.now);
+        }
+        return open(newAuditor(), LocalDateTime.now());
+    }
+
+    public static AuditScope open(String auditor) {
+        return open(auditor, LocalDateTime.now());
+    }
+
+    private static AuditScope open(String auditor, LocalDateTime now) {
+        AuditScope scope = new AuditScope(auditor, now, current.get());
+        current.set(scope);
+        return scope;
+    }
+
+    /**
+     * 범위 밖이면 호출할 때마다 새로 만듦
+     */
+    public static String currentAuditor() {
+        AuditScope scope = current.get();
+        return scope != null ? scope.auditor : newAuditor();
+    }
+
+    public static LocalDateTime now() {
+        AuditScope scope = current.get();
+        return scope != null ? scope.now : LocalDateTime.now();
+    }
+
+    @Override
+    public void close() {
+        if (previous != null) {
+            current.set(previous);
+        } else {
+            current.remove();
+        }
+    }
+
+    /**
+     * 실제 사용자 대신 쓰는 임시 값이라 보안 난수가 필요 없음. 경합 없는 ThreadLocalRandom 으로 UUID(v4) 를 만듦
+     */
+    static String newAuditor() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long most = (random.nextLong() & ~0xF000L) | 0x4000L;                       //version 4
+        long least = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;   //IETF variant
+        return new UUID(most, least).toString();
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import javax.persistence.Column;
 import javax.persistence.EntityListeners;
 import javax.persistence.MappedSuperclass;
+import javax.persistence.Version;
 
 @EntityListeners(AuditingEntityListener.class)
 @MappedSuperclass
@@ -21,4 +22,11 @@ public class BaseEntity extends BaseTimeEntity {
 
     @LastModifiedBy
     private String lastModifiedBy;
+
+    /**
+     * 낙관적 락. update 시 where version = ? 로 확인해서 그 사이 다른 트랜잭션이 바꿨으면 OptimisticLockException
+     * 벌크 update 도 version 을 같이 올려야 함 (Member.INCREMENT_AGE_FROM 참고)
+     */
+    @Version
+    private Long version;
 }
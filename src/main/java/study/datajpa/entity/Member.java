@@ -1,18 +1,48 @@
 package study.datajpa.entity;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import study.datajpa.repository.MemberEntityListener;
 
 import javax.persistence.*;
+import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_member_username", columnList = "username"),               //username 단건/목록 조회
+        @Index(name = "idx_member_age_username", columnList = "age, username"),      //where age = ? order by username
+        @Index(name = "idx_member_job_lease", columnList = "job_run, lease_until"),  //작업 큐 claim 대상 조회
+        @Index(name = "idx_member_claim_token", columnList = "claim_token")
+})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@EntityListeners(MemberEntityListener.class)
+@NamedQueries({     //기동 시 한 번 파싱/검증되고 이후엔 이름으로 바로 꺼내 씀 (Member.xxx 쿼리 메서드 이름과 겹치지 않게 지음)
+        @NamedQuery(name = Member.ALL, query = "select m from Member m"),
+        @NamedQuery(name = Member.COUNT_ALL, query = "select count(m) from Member m"),
+        @NamedQuery(name = Member.BY_USERNAME_AND_AGE_GREATER_THAN,
+                query = "select m from Member m where m.username = :username and m.age > :age"),
+        @NamedQuery(name = Member.BY_AGE_ORDER_BY_USERNAME_DESC,
+                query = "select m from Member m where m.age = :age order by m.username desc"),
+        @NamedQuery(name = Member.COUNT_BY_AGE, query = "select count(m) from Member m where m.age = :age"),
+        @NamedQuery(name = Member.INCREMENT_AGE_FROM, query = "update Member m set m.age = m.age + 1, m.version = m.version + 1 where m.age >= :age")
+})
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"})
 public class Member extends BaseEntity{
 
+    public static final String ALL = "Member.all";
+    public static final String COUNT_ALL = "Member.countAll";
+    public static final String BY_USERNAME_AND_AGE_GREATER_THAN = "Member.byUsernameAndAgeGreaterThan";
+    public static final String BY_AGE_ORDER_BY_USERNAME_DESC = "Member.byAgeOrderByUsernameDesc";
+    public static final String COUNT_BY_AGE = "Member.countByAge";
+    public static final String INCREMENT_AGE_FROM = "Member.incrementAgeFrom";
+
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 50)   //pooled 옵티마이저로 50개씩 미리 할당
     @Column(name = "member_id")
     private Long id;
 
@@ -23,6 +53,29 @@ public class Member extends BaseEntity{
     @JoinColumn(name = "team_id")
     private Team team;
 
+    /**
+     * 로딩/저장 시점의 팀 id. MemberEntityListener 가 팀 변경을 감지하는 데 사용 (DB 컬럼 아님)
+     */
+    @Transient
+    private Long persistedTeamId;
+
+    /**
+     * 작업 큐 상태 (MemberRepositoryCustom.claimBatch). 리포지토리가 네이티브 update 로만 바꾸므로 엔티티에서는 읽기 전용
+     * jobRun: 마지막으로 처리 완료한 실행 id, claimToken/leaseUntil: 현재 처리 중인 워커와 임대 만료 시각
+     * (2차 캐시를 비우지 않으므로 엔티티로 읽은 값은 늦을 수 있음, 판단은 항상 DB 조건으로 함)
+     */
+    @Column(name = "job_run", length = 64, insertable = false, updatable = false)
+    @Setter(AccessLevel.NONE)
+    private String jobRun;
+
+    @Column(name = "claim_token", length = 36, insertable = false, updatable = false)
+    @Setter(AccessLevel.NONE)
+    private String claimToken;
+
+    @Column(name = "lease_until", insertable = false, updatable = false)
+    @Setter(AccessLevel.NONE)
+    private LocalDateTime leaseUntil;
+
     /**
      * 위의 어노테이션 NoArgsConstructor()가 같은 의미
      */
@@ -1,24 +1,48 @@
 package study.datajpa.entity;
 
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NamedQueries({
+        @NamedQuery(name = Team.ALL, query = "select t from Team t"),
+        @NamedQuery(name = Team.COUNT_ALL, query = "select count(t) from Team t")
+})
+@BatchSize(size = 100)      //member.getTeam() 프록시 초기화 시 팀을 in 쿼리로 100개씩 묶어서 조회
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "name"})
 public class Team {
 
+    public static final String ALL = "Team.all";
+    public static final String COUNT_ALL = "Team.countAll";
+
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "team_seq_generator")
+    @SequenceGenerator(name = "team_seq_generator", sequenceName = "team_seq", allocationSize = 50)
     @Column(name = "team_id")
     private Long od;
     private String name;
 
+    @Version
+    private Long version;
+
+    /**
+     * 비정규화 회원 수. TeamMemberCounter 가 모아서 JDBC 로 더하기 때문에 엔티티 update 에서는 제외
+     * (팀 수정과 카운터 반영이 서로 version 충돌을 일으키지 않음)
+     */
+    @Column(name = "member_count", nullable = false, updatable = false)
+    private long memberCount;
+
+    @BatchSize(size = 100)  //팀 여러개의 members 를 in 쿼리 한번으로 조회 (N+1 방지)
     @OneToMany(mappedBy = "team")
     private List<Member> members = new ArrayList<>();
 
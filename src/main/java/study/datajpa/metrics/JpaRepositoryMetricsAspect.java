@@ -0,0 +1,25 @@
+package study.datajpa.metrics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * MemberJpaRepository 처럼 EntityManager 를 직접 쓰는 @Repository 클래스에 메서드 태그를 설정함.
+ */
+@Aspect
+@Component
+public class JpaRepositoryMetricsAspect {
+
+    @Around("within(study.datajpa.repository..*) && @within(org.springframework.stereotype.Repository)")
+    public Object tag(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName();
+        String previous = SqlStatementContext.enterMethod(method);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            SqlStatementContext.exitMethod(previous);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package study.datajpa.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * 스프링 데이터 리포지토리 프록시에 붙어서 "MemberRepository.findByAge" 같은 태그를 설정함.
+ */
+class RepositoryMethodInterceptor implements MethodInterceptor {
+
+    private final String repositoryName;
+
+    RepositoryMethodInterceptor(String repositoryName) {
+        this.repositoryName = repositoryName;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        String previous = SqlStatementContext.enterMethod(repositoryName + "." + invocation.getMethod().getName());
+        try {
+            return invocation.proceed();
+        } finally {
+            SqlStatementContext.exitMethod(previous);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package study.datajpa.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * HTTP 요청 하나에서 실행된 SQL 개수를 세서 분포를 기록하고,
+ * warn-threshold 를 넘으면 경고 로그를 남김 (N+1 탐지용).
+ */
+@Slf4j
+@Component
+public class SqlCountFilter extends OncePerRequestFilter {
+
+    private final DistributionSummary statementsPerRequest;
+    private final int warnThreshold;
+
+    public SqlCountFilter(MeterRegistry meterRegistry,
+                          @Value("${datajpa.sql-metrics.warn-threshold:30}") int warnThreshold) {
+        this.statementsPerRequest = DistributionSummary.builder("datajpa.sql.statements.per.request")
+                .description("HTTP 요청당 SQL 실행 횟수")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.warnThreshold = warnThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatementContext.startRequest();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int count = SqlStatementContext.endRequest();
+            statementsPerRequest.record(count);
+            if (count > warnThreshold) {
+                log.warn("SQL 실행 횟수가 기준을 넘었습니다. count={}, threshold={}, {} {}",
+                        count, warnThreshold, request.getMethod(), request.getRequestURI());
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package study.datajpa.metrics;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+import study.datajpa.controller.MemberController;
+
+/**
+ * 디버그용. 응답 바디를 쓰기 직전까지 실행된 SQL 개수를 X-SQL-Count 헤더로 내려줌.
+ */
+@RestControllerAdvice(assignableTypes = MemberController.class)
+@ConditionalOnProperty(name = "datajpa.sql-metrics.header-enabled", havingValue = "true")
+public class SqlCountHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String HEADER = "X-SQL-Count";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        int count = SqlStatementContext.requestCount();
+        if (count >= 0) {
+            response.getHeaders().set(HEADER, String.valueOf(count));
+        }
+        return body;
+    }
+}
@@ -0,0 +1,41 @@
+package study.datajpa.metrics;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * p6spy 가 감싼 커넥션에서 실행되는 모든 SQL 의 실행 시간을 리포지토리 메서드별로 기록함.
+ * (p6spy 스타터가 JdbcEventListener 빈을 자동으로 등록해 줌)
+ */
+@Component
+public class SqlMetricsListener extends SimpleJdbcEventListener {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public SqlMetricsListener(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        SqlStatementContext.increment();
+        timer(SqlStatementContext.currentMethod()).record(timeElapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer timer(String method) {
+        return timers.computeIfAbsent(method, m -> Timer.builder("datajpa.sql.statements")
+                .description("리포지토리 메서드별 SQL 실행 시간")
+                .tag("method", m)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,63 @@
+package study.datajpa.metrics;
+
+/**
+ * 현재 스레드에서 실행 중인 리포지토리 메서드와 HTTP 요청별 SQL 실행 횟수를 들고 있음.
+ * p6spy 리스너는 쿼리를 실행한 스레드에서 호출되기 때문에 ThreadLocal 로 충분함.
+ */
+public final class SqlStatementContext {
+
+    public static final String NO_METHOD = "none";
+
+    private static final ThreadLocal<String> currentMethod = new ThreadLocal<>();
+    private static final ThreadLocal<int[]> requestCount = new ThreadLocal<>();
+
+    private SqlStatementContext() {
+    }
+
+    /**
+     * @return 이전 태그 (중첩 호출 복원용, exitMethod 에 넘겨줄 것)
+     */
+    public static String enterMethod(String method) {
+        String previous = currentMethod.get();
+        if (previous == null) {
+            currentMethod.set(method);    //바깥 리포지토리 메서드 기준으로 태그를 붙임
+        }
+        return previous;
+    }
+
+    public static void exitMethod(String previous) {
+        if (previous == null) {
+            currentMethod.remove();
+        }
+    }
+
+    public static String currentMethod() {
+        String method = currentMethod.get();
+        return method != null ? method : NO_METHOD;
+    }
+
+    public static void startRequest() {
+        requestCount.set(new int[1]);
+    }
+
+    public static void increment() {
+        int[] count = requestCount.get();
+        if (count != null) {
+            count[0]++;
+        }
+    }
+
+    /**
+     * @return 요청 밖이면 -1
+     */
+    public static int requestCount() {
+        int[] count = requestCount.get();
+        return count != null ? count[0] : -1;
+    }
+
+    public static int endRequest() {
+        int count = requestCount();
+        requestCount.remove();
+        return count;
+    }
+}
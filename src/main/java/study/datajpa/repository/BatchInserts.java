@@ -0,0 +1,36 @@
+package study.datajpa.repository;
+
+import study.datajpa.entity.AuditScope;
+
+import javax.persistence.EntityManager;
+
+/**
+ * 순수 JPA 리포지토리와 스프링 데이터 JPA 커스텀 구현이 같이 쓰는 배치 저장 로직.
+ * hibernate.jdbc.batch_size 와 같은 값으로 flush 해야 배치가 꽉 차서 나감.
+ */
+final class BatchInserts {
+
+    private BatchInserts() {
+    }
+
+    static int persistAll(EntityManager em, Iterable<?> entities, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize는 1 이상이어야 합니다: " + batchSize);
+        }
+
+        //배치 전체가 같은 등록자/시간을 쓰도록 감사 범위를 엶 (flush 시점에 @PreUpdate 가 불려도 같은 값)
+        try (AuditScope scope = AuditScope.open()) {
+            int count = 0;
+            for (Object entity : entities) {
+                em.persist(entity);
+                if (++count % batchSize == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+            em.flush();
+            em.clear();
+            return count;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package study.datajpa.repository;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.config.AsyncConfig;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 큰 IN 조회를 chunkSize 개씩 나눠서 실행하고 입력 순서대로 합쳐줌.
+ * hibernate.query.in_clause_parameter_padding 이 켜져 있어서 마지막 청크도 2의 거듭제곱 개로 채워짐
+ * -> 쿼리 계획은 1, 2, 4, ..., chunkSize 개만 생김 (chunkSize 는 2의 거듭제곱으로 맞춤)
+ */
+@Component
+public class BatchedLookup {
+
+    private final Executor executor;
+    private final TransactionTemplate readOnlyTx;
+    private final int chunkSize;
+    private final boolean parallel;
+
+    public BatchedLookup(@Qualifier(AsyncConfig.DB_EXECUTOR) Executor executor,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${datajpa.bulk-lookup.chunk-size:512}") int chunkSize,
+                         @Value("${datajpa.bulk-lookup.parallel:false}") boolean parallel) {
+        this.executor = executor;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.chunkSize = Integer.highestOneBit(Math.max(1, chunkSize));
+        this.parallel = parallel;
+    }
+
+    /**
+     * @param keys       중복은 한 번만 조회함. 결과는 keys 에 처음 나온 순서대로 (없는 키는 빠짐)
+     * @param chunkQuery 청크 하나를 IN 으로 조회하는 쿼리
+     * @param keyOf      결과에서 키를 꺼내는 함수 (한 키에 여러 건이면 모두 그 자리에 들어감)
+     */
+    public <K, T> List<T> fetch(Collection<K> keys, Function<List<K>, List<T>> chunkQuery, Function<T, K> keyOf) {
+        List<K> distinct = new ArrayList<>(new LinkedHashSet<>(keys));
+        if (distinct.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<List<K>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += chunkSize) {
+            chunks.add(distinct.subList(from, Math.min(from + chunkSize, distinct.size())));
+        }
+
+        Map<K, List<T>> byKey = new LinkedHashMap<>();
+        for (K key : distinct) {
+            byKey.put(key, new ArrayList<>(1));
+        }
+        for (List<T> rows : run(chunks, chunkQuery)) {
+            for (T row : rows) {
+                List<T> slot = byKey.get(keyOf.apply(row));
+                if (slot != null) {
+                    slot.add(row);
+                }
+            }
+        }
+
+        List<T> result = new ArrayList<>();
+        byKey.values().forEach(result::addAll);
+        return result;
+    }
+
+    /**
+     * 병렬 모드에서는 청크마다 별도 스레드/트랜잭션에서 조회하므로 결과 엔티티는 호출한 쪽 영속성 컨텍스트와 무관한 준영속 상태.
+     * 그래서 호출한 쪽에 트랜잭션이 있으면(조회한 엔티티를 수정할 수 있음) 병렬 모드여도 호출 스레드에서 순서대로 조회하고,
+     * 이미 dbExecutor 스레드 안이면 같은 풀에 작업을 넣고 기다리다 멈출 수 있어서 역시 호출 스레드에서 조회함
+     */
+    private <K, T> List<List<T>> run(List<List<K>> chunks, Function<List<K>, List<T>> chunkQuery) {
+        List<List<T>> results = new ArrayList<>(chunks.size());
+        if (!parallel || chunks.size() == 1
+                || TransactionSynchronizationManager.isActualTransactionActive()
+                || AsyncConfig.isDbExecutorThread()) {
+            for (List<K> chunk : chunks) {
+                results.add(chunkQuery.apply(chunk));
+            }
+            return results;
+        }
+
+        List<CompletableFuture<List<T>>> futures = new ArrayList<>(chunks.size());
+        for (List<K> chunk : chunks) {
+            futures.add(submit(() -> readOnlyTx.execute(status -> chunkQuery.apply(chunk))));
+        }
+        for (CompletableFuture<List<T>> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    private <T> CompletableFuture<List<T>> submit(Supplier<List<T>> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (TaskRejectedException e) {
+            return CompletableFuture.completedFuture(readOnlyTx.execute(status -> task.get()));    //풀이 꽉 차면 호출 스레드에서 실행
+        }
+    }
+}
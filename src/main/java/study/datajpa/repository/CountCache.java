@@ -0,0 +1,119 @@
+package study.datajpa.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * 페이징 count 쿼리 결과 캐시. (쿼리 + 파라미터) 를 키로 TTL 동안 재사용함.
+ * Member 에 쓰기(save, delete, 벌크 연산)가 일어나면 전부 무효화됨.
+ * 쓰기가 있었던 트랜잭션 안에서 센 값은 커밋 전(롤백될 수도 있는) 행이 포함되므로 캐시하지 않고,
+ * 트랜잭션이 끝날 때 한 번 더 무효화함 (그 사이 다른 요청이 캐시한 옛 값 제거).
+ */
+@Component
+public class CountCache {
+
+    private final Map<Key, Entry> cache = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    public CountCache(@Value("${datajpa.count-cache.ttl:30s}") Duration ttl,
+                      @Value("${datajpa.count-cache.max-entries:1000}") int maxEntries) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+    }
+
+    public long get(String query, LongSupplier counter, Object... params) {
+        Key key = new Key(query, Arrays.asList(params));
+        long now = System.nanoTime();
+
+        if (hasPendingWrites()) {
+            return counter.getAsLong();
+        }
+        Entry entry = cache.get(key);
+        if (entry != null && now - entry.loadedAt < ttlNanos) {
+            return entry.count;
+        }
+
+        long count = counter.getAsLong();
+        if (hasPendingWrites()) {
+            return count;       //count 쿼리 직전 auto flush 로 이 트랜잭션의 쓰기가 나간 경우
+        }
+        if (cache.size() >= maxEntries) {
+            cache.clear();      //파라미터 조합이 너무 많아지면 그냥 비움
+        }
+        cache.put(key, new Entry(count, now));
+        return count;
+    }
+
+    public void invalidateAll() {
+        cache.clear();
+        if (TransactionSynchronizationManager.isSynchronizationActive() && !hasPendingWrites()) {
+            TransactionSynchronizationManager.registerSynchronization(new PendingWrites());
+        }
+    }
+
+    private boolean hasPendingWrites() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingWrites) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 쓰기가 있었던 트랜잭션 표시. 커밋/롤백 후에 캐시를 다시 비움
+     */
+    private class PendingWrites implements TransactionSynchronization {
+        @Override
+        public void afterCompletion(int status) {
+            cache.clear();
+        }
+    }
+
+    private static final class Key {
+        private final String query;
+        private final List<Object> params;
+
+        private Key(String query, List<Object> params) {
+            this.query = query;
+            this.params = params;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return query.equals(key.query) && params.equals(key.params);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(query, params);
+        }
+    }
+
+    private static final class Entry {
+        private final long count;
+        private final long loadedAt;
+
+        private Entry(long count, long loadedAt) {
+            this.count = count;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package study.datajpa.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 키셋(seek) 페이징의 위치를 나타내는 커서.
+ * 마지막으로 읽은 member_id 를 불투명한 토큰으로 인코딩해서 클라이언트에 넘겨줌.
+ * offset 을 쓰지 않기 때문에 몇 번째 페이지든 같은 비용으로 조회됨.
+ */
+public final class Cursor {
+
+    private static final String PREFIX = "m:";
+    private static final Cursor FIRST = new Cursor(null);
+
+    private final Long lastId;
+
+    private Cursor(Long lastId) {
+        this.lastId = lastId;
+    }
+
+    public static Cursor first() {
+        return FIRST;
+    }
+
+    public static Cursor after(Long lastId) {
+        return new Cursor(lastId);
+    }
+
+    /**
+     * 토큰이 비어있으면 첫 페이지 커서를 반환.
+     */
+    public static Cursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(PREFIX)) {
+                throw new IllegalArgumentException("잘못된 커서 토큰: " + token);
+            }
+            return new Cursor(Long.parseLong(decoded.substring(PREFIX.length())));
+        } catch (IllegalArgumentException e) {     //NumberFormatException 포함
+            throw new IllegalArgumentException("잘못된 커서 토큰: " + token, e);
+        }
+    }
+
+    public String encode() {
+        if (lastId == null) {
+            return null;
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean isFirst() {
+        return lastId == null;
+    }
+
+    public Long getLastId() {
+        return lastId;
+    }
+}
@@ -0,0 +1,22 @@
+package study.datajpa.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 엔티티 그래프(fetch join) + 페이징 공용 fragment. 어떤 리포지토리든 extends 해서 사용할 수 있음.
+ * 컬렉션 fetch join 에 setMaxResults 를 걸면 하이버네이트가 전체를 읽고 메모리에서 자름 (HHH000104).
+ * 대신 두 단계로 조회함
+ * 1. 정렬/페이징을 적용해서 id 만 조회
+ * 2. where id in (:ids) 로 그래프와 함께 조회하고 1번 순서대로 정렬
+ * -> 메모리 사용량이 전체 행 수가 아니라 페이지 크기에 비례함
+ */
+public interface FetchJoinPagingRepository {
+
+    /**
+     * @param attributePaths 함께 조회할 연관관계 ("team", "members", "members.team" 처럼 점으로 중첩)
+     */
+    @Transactional(readOnly = true)
+    <T> Page<T> findPageWithGraph(Class<T> type, Pageable pageable, String... attributePaths);
+}
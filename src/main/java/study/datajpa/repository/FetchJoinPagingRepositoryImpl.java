@@ -0,0 +1,91 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.JpaEntityInformationSupport;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import javax.persistence.EntityGraph;
+import javax.persistence.EntityManager;
+import javax.persistence.Subgraph;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class FetchJoinPagingRepositoryImpl implements FetchJoinPagingRepository {
+
+    private static final String LOAD_GRAPH = "javax.persistence.loadgraph";
+
+    private final EntityManager em;
+
+    @Override
+    public <T> Page<T> findPageWithGraph(Class<T> type, Pageable pageable, String... attributePaths) {
+        JpaEntityInformation<T, ?> information = JpaEntityInformationSupport.getEntityInformation(type, em);
+        String entityName = information.getEntityName();
+        String idAttribute = information.getRequiredIdAttribute().getName();
+
+        //1. id 페이지. 정렬이 유일하지 않으면 페이지 경계가 흔들리므로 id 를 마지막 정렬 기준으로 붙임
+        Sort sort = pageable.getSort();
+        if (sort.getOrderFor(idAttribute) == null) {
+            sort = sort.and(Sort.by(idAttribute));
+        }
+        String idQuery = QueryUtils.applySorting("select e." + idAttribute + " from " + entityName + " e", sort, "e");
+        List<Object> ids = em.createQuery(idQuery, Object.class)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        //2. 그래프와 함께 조회 (페이징 없음, 행 수는 페이지 크기 x 컬렉션 크기)
+        List<T> content = ids.isEmpty() ? Collections.emptyList() : fetchInOrder(type, information, ids, attributePaths);
+
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> em.createQuery("select count(e) from " + entityName + " e", Long.class).getSingleResult());
+    }
+
+    private <T> List<T> fetchInOrder(Class<T> type, JpaEntityInformation<T, ?> information, List<Object> ids,
+                                     String... attributePaths) {
+        List<T> rows = em.createQuery("select e from " + information.getEntityName() + " e" +
+                        " where e." + information.getRequiredIdAttribute().getName() + " in :ids", type)
+                .setParameter("ids", ids)
+                .setHint(LOAD_GRAPH, entityGraph(type, attributePaths))
+                .getResultList();
+
+        //컬렉션 fetch join 은 같은 엔티티가 여러 번 나오므로 id 로 한 번씩만 모음
+        Map<Object, T> byId = new HashMap<>();
+        for (T row : rows) {
+            byId.putIfAbsent(information.getId(row), row);
+        }
+        List<T> content = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            T entity = byId.get(id);
+            if (entity != null) {       //두 쿼리 사이에 삭제된 경우
+                content.add(entity);
+            }
+        }
+        return content;
+    }
+
+    private <T> EntityGraph<T> entityGraph(Class<T> type, String... attributePaths) {
+        EntityGraph<T> graph = em.createEntityGraph(type);
+        for (String path : attributePaths) {
+            String[] names = path.split("\\.");
+            if (names.length == 1) {
+                graph.addAttributeNodes(names[0]);
+                continue;
+            }
+            Subgraph<Object> subgraph = graph.addSubgraph(names[0]);
+            for (int i = 1; i < names.length - 1; i++) {
+                subgraph = subgraph.addSubgraph(names[i]);
+            }
+            subgraph.addAttributeNodes(names[names.length - 1]);
+        }
+        return graph;
+    }
+}
@@ -0,0 +1,87 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+import javax.persistence.PrePersist;
+import java.util.Objects;
+
+/**
+ * Member 변경을 감지해서 캐시들을 갱신하는 엔티티 리스너.
+ * 스프링 빈으로 등록되어 있어서 하이버네이트가 SpringBeanContainer 로 주입받아 사용함.
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberEntityListener {
+
+    private final CountCache countCache;
+    private final UsernameBloomFilter usernameBloomFilter;
+    private final MemberSnapshotCache memberSnapshotCache;
+    private final TeamMemberCounter teamMemberCounter;
+
+    /**
+     * persist 시점에 바로 넣어야 flush 전의 같은 트랜잭션 조회에서도 걸러지지 않음
+     */
+    @PrePersist
+    public void prePersist(Member member) {
+        usernameBloomFilter.put(member.getUsername());
+    }
+
+    @PostLoad
+    public void postLoad(Member member) {
+        member.setPersistedTeamId(teamId(member.getTeam()));
+    }
+
+    /**
+     * persist 후 flush 전에 username 을 바꾸면 insert 에는 바뀐 이름이 들어가고 @PostUpdate 는 불리지 않으므로 여기서도 넣음
+     */
+    @PostPersist
+    public void postPersist(Member member) {
+        usernameBloomFilter.put(member.getUsername());
+        countCache.invalidateAll();
+        Long teamId = teamId(member.getTeam());
+        teamMemberCounter.record(teamId, 1);
+        member.setPersistedTeamId(teamId);
+        memberSnapshotCache.evict(member.getId());     //롤백되면 없는 회원의 스냅샷이 남지 않도록 쓰기로 표시
+    }
+
+    @PostUpdate
+    public void postUpdate(Member member) {
+        countCache.invalidateAll();
+        Long teamId = teamId(member.getTeam());
+        if (!Objects.equals(teamId, member.getPersistedTeamId())) {     //changeTeam
+            teamMemberCounter.record(member.getPersistedTeamId(), -1);
+            teamMemberCounter.record(teamId, 1);
+            member.setPersistedTeamId(teamId);
+        }
+        usernameBloomFilter.put(member.getUsername());     //username 이 바뀌었을 수 있음
+        memberSnapshotCache.evict(member.getId());
+    }
+
+    @PostRemove
+    public void postRemove(Member member) {
+        countCache.invalidateAll();
+        teamMemberCounter.record(member.getPersistedTeamId(), -1);
+        memberSnapshotCache.evict(member.getId());
+    }
+
+    /**
+     * 지연 로딩 프록시를 초기화하지 않고 id 만 꺼냄
+     */
+    private static Long teamId(Team team) {
+        if (team == null) {
+            return null;
+        }
+        if (team instanceof HibernateProxy) {
+            return (Long) ((HibernateProxy) team).getHibernateLazyInitializer().getIdentifier();
+        }
+        return team.getOd();
+    }
+}
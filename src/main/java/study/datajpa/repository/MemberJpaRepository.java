@@ -1,5 +1,6 @@
 package study.datajpa.repository;
 
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 import study.datajpa.entity.Member;
 
@@ -9,17 +10,23 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
+@RequiredArgsConstructor
 public class MemberJpaRepository {
 
-
     @PersistenceContext
     private EntityManager em;
 
+    private final CountCache countCache;
+
     public Member save(Member member) {
         em.persist(member);
         return member;
     }
 
+    public int saveAllBatched(Iterable<? extends Member> members, int batchSize) {
+        return BatchInserts.persistAll(em, members, batchSize);
+    }
+
     public void delete(Member member) {
         em.remove(member);
     }
@@ -34,24 +41,24 @@ public class MemberJpaRepository {
     }
 
     public long count() {
-        return em.createQuery("select count(m) from Member m ", Long.class)
+        return em.createNamedQuery(Member.COUNT_ALL, Long.class)
                 .getSingleResult();     //단건 조회시
     }
 
     public List<Member> findAll() {
-        return em.createQuery("select m from Member m", Member.class)
+        return em.createNamedQuery(Member.ALL, Member.class)
                 .getResultList();       //리스트 조회시
     }
 
     public List<Member> findByUsernameAndAgeGreaterThen(String username, int age) {
-        return em.createQuery("select m from Member m where m.username = :username and m.age > :age",Member.class)
+        return em.createNamedQuery(Member.BY_USERNAME_AND_AGE_GREATER_THAN, Member.class)
                 .setParameter("username", username)
                 .setParameter("age",age)
                 .getResultList();
     }
 
     public List<Member> findByPage(int age, int offset, int limit) {
-        return em.createQuery("select m from Member m where m.age = :age order by m.username desc ",Member.class)
+        return em.createNamedQuery(Member.BY_AGE_ORDER_BY_USERNAME_DESC, Member.class)
                 .setParameter("age", age)
                 .setFirstResult(offset)
                 .setMaxResults(limit)
@@ -59,15 +66,16 @@ public class MemberJpaRepository {
     }
 
     public long totalCount(int age) {
-        return em.createQuery("select count(m) from Member m where m.age = :age",Long.class)
+        return countCache.get(Member.COUNT_BY_AGE, () -> em.createNamedQuery(Member.COUNT_BY_AGE, Long.class)
                 .setParameter("age", age)
-                .getSingleResult();
+                .getSingleResult(), age);
     }
 
     public int bulkAgePlus(int age) {
-        return em.createQuery("update Member m set m.age = m.age + 1 " +
-                        "where m.age >= :age")
+        int resultCount = em.createNamedQuery(Member.INCREMENT_AGE_FROM)
                 .setParameter("age", age)
                 .executeUpdate();
+        countCache.invalidateAll();
+        return resultCount;
     }
 }
@@ -2,60 +2,140 @@ package study.datajpa.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberSnapshot;
 import study.datajpa.entity.Member;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom {
+@Transactional(readOnly = true)      //조회 메서드는 읽기 전용 트랜잭션 (라우팅 시 레플리카로 감)
+public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom, FetchJoinPagingRepository {
+    @ReadOnlyQuery
     List<Member> findByUsernameAndAgeGreaterThan(String username, int age);
 
+    @ReadOnlyQuery
     @Query("select m from Member m where m.username = :username and m.age = :age")
     List<Member> findUser(@Param("username") String username, @Param("age") int age);
 
     @Query("select m.username from Member m")
     List<String> findUsernameList();
 
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select m.username from Member m")
+    Stream<String> streamUsernames();
+
     @Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m join m.team t")
     List<MemberDto> findMemberDto();
 
+    /**
+     * 커밋 시점에 version 을 다시 확인함 (읽기만 해도 그 사이 바뀌었으면 실패).
+     * 충돌 시 재시도는 OptimisticRetryExecutor 사용
+     */
+    @Transactional
+    @Lock(LockModeType.OPTIMISTIC)
+    Optional<Member> findWithOptimisticLockById(Long id);
+
+    /**
+     * select ... for update. 충돌이 잦아 재시도 비용이 더 클 때만 사용 (같은 행을 쓰는 요청이 직렬화됨)
+     */
+    @Transactional      //레플리카로 가지 않도록 readOnly 를 덮어씀
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "3000"))
+    Optional<Member> findWithPessimisticLockById(Long id);
+
+    /**
+     * 엔티티를 영속성 컨텍스트에 올리지 않고 캐시용 스냅샷만 조회
+     */
+    @Query("select new study.datajpa.dto.MemberSnapshot(m.id, m.username, m.lastModifiedDate) from Member m where m.id = :id")
+    Optional<MemberSnapshot> findSnapshotById(@Param("id") Long id);
+
+    /**
+     * 동적 프로젝션. type 에 MemberSummary 같은 인터페이스 프로젝션을 넘기면 됨
+     * (별칭 기반 Tuple 조회라 생성자 DTO 는 findMemberDtoPage 를 사용)
+     */
+    @Query(value = "select m.id as id, m.username as username, t.name as teamName from Member m left join m.team t",
+            countQuery = "select count(m) from Member m")
+    <T> Page<T> findProjectedBy(Pageable pageable, Class<T> type);
+
+    @ReadOnlyQuery
     @Query("select m from Member m where m.username in :names")
     List<Member> findByNames(@Param("names") Collection<String> names);
 
+    @ReadOnlyQuery
     List<Member> findListByUsername(String username);   //컬렉션
 
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))     //쿼리 캐시 사용
     Member findMemberByUsername(String username);   //단건
 
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
     Optional<Member> findOptionalByUsername(String username);   //단건 Optional
 
-    @Query(value = "select m from Member m left join m.team t",
-            countQuery = "select count(m.username) from Member m")
-    Page<Member> findByAge(int age, Pageable pageable);
+    /**
+     * 블룸 필터로 없는 username 을 먼저 걸러내고 DB를 조회함
+     */
+    default Optional<Member> findOptionalByUsernameFiltered(String username) {
+        if (!mightContainUsername(username)) {
+            return Optional.empty();
+        }
+        return findOptionalByUsername(username);
+    }
+
+    default List<Member> findListByUsernameFiltered(String username) {
+        if (!mightContainUsername(username)) {
+            return Collections.emptyList();
+        }
+        return findListByUsername(username);
+    }
+
+    default List<Member> findByNamesFiltered(Collection<String> names) {
+        List<String> candidates = names.stream()
+                .filter(this::mightContainUsername)
+                .collect(Collectors.toList());
+        if (candidates.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return findByNames(candidates);
+    }
 
     /**
-     * 업데이트 쿼리 필수
-     * update 쿼리는 영속성 컨텍스트는 무시하기 때문에 영속성 컨텍스트의 값은 바뀌지 않음
-     * (Automatically 옵션을 true로 바꿔주면 적용 em.clear를 컨텍스트를 초기화 해줌).
-     * DB값만 바뀜.
+     * count 쿼리 없이 size + 1 개를 가져와서 다음 페이지 여부만 판단 (totalCount 가 필요 없을 때)
      */
-    @Modifying(clearAutomatically = true)
-    @Query(value = "update Member m set m.age = m.age+1 where m.age >= :age")
-    int bulkAgePlus(@Param("age") int age);
+    Slice<Member> findSliceByAge(int age, Pageable pageable);
+
+    Slice<Member> findSliceBy(Pageable pageable);
 
+    @ReadOnlyQuery
     @Query("SELECT m from Member m left join fetch m.team")
     List<Member> findMemberFetchJoin();
 
+    @ReadOnlyQuery
     @Override
     @EntityGraph(attributePaths = {"team"})
     List<Member> findAll();
 
+    /**
+     * 팀과 함께 페이징 조회 (id 페이지 -> in 조회 2단계, FetchJoinPagingRepository 참고)
+     */
+    default Page<Member> findPageWithTeam(Pageable pageable) {
+        return findPageWithGraph(Member.class, pageable, "team");
+    }
+
+    @ReadOnlyQuery
     @EntityGraph(attributePaths = {"team"})                 //원하는 옵션을 넣고 엔티티 그래프로 fetch join할 수 있음
     List<Member> findEntityGraphByUsername(String username);
 
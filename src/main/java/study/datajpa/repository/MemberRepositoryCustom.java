@@ -1,9 +1,100 @@
 package study.datajpa.repository;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberSearchCondition;
 import study.datajpa.entity.Member;
 
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface MemberRepositoryCustom {
     List<Member> findMemberCustom();
+
+    /**
+     * 키셋 페이징. member_id 오름차순으로 cursor 이후의 회원을 limit 개 조회
+     * count 쿼리를 날리지 않음.
+     */
+    Window<Member> findAll(Cursor cursor, int limit);
+
+    /**
+     * false 면 해당 username 의 회원은 확실히 없음
+     */
+    boolean mightContainUsername(String username);
+
+    /**
+     * count 쿼리 결과는 CountCache 에서 재사용함 (페이지를 넘길 때마다 count 를 다시 세지 않음)
+     */
+    Page<Member> findByAge(int age, Pageable pageable);
+
+    /**
+     * 엔티티를 만들지 않고 DTO 로 바로 페이징 조회 (영속성 컨텍스트에 올라가지 않음)
+     * count 는 findByAge 와 같이 CountCache 에서 재사용함
+     */
+    Page<MemberDto> findMemberDtoPage(Pageable pageable);
+
+    /**
+     * 동적 검색. 들어온 조건만 where 절에 넣어서 쿼리 한 번(+ count)으로 조회함.
+     * 정렬은 id, username, age, createdDate, teamName 만 허용 (그 외는 IllegalArgumentException)
+     * count 는 CountCache 에서 재사용하지만, teamName 조건이 있으면 팀 이름 변경이 반영되도록 매번 조회함
+     */
+    Page<MemberDto> search(MemberSearchCondition condition, Pageable pageable);
+
+    /**
+     * id 목록으로 한 번에 조회. IN 절을 일정 크기로 나눠서 실행하고 입력 순서대로 돌려줌 (없는 id 는 빠짐)
+     * findById 를 반복 호출하는 대신 사용
+     */
+    List<Member> findAllByIdsBatched(Collection<Long> ids);
+
+    /**
+     * findByNames 의 청크 버전. 결과는 names 순서대로 (같은 이름의 회원은 모두 그 자리에)
+     */
+    List<Member> findByNamesBatched(Collection<String> names);
+
+    /**
+     * 전체 회원을 팀 이름과 함께 한 줄씩 흘려보냄 (forward-only 커서).
+     * 트랜잭션 안에서 호출하고 다 쓰면 반드시 close 해야 함.
+     */
+    Stream<MemberDto> streamMemberDto(int fetchSize);
+
+    /**
+     * 대량 저장. batchSize 마다 flush + clear 해서 JDBC 배치로 insert 하고 메모리를 일정하게 유지함.
+     * 저장이 끝난 엔티티들은 준영속 상태가 됨.
+     * @return 저장한 건수
+     */
+    @Transactional
+    int saveAllBatched(Iterable<? extends Member> members, int batchSize);
+
+    /**
+     * 업데이트 쿼리 필수
+     * update 쿼리는 영속성 컨텍스트는 무시하기 때문에 영속성 컨텍스트의 값은 바뀌지 않음
+     * (em.clear로 컨텍스트를 초기화 해줌, 예전 @Modifying(clearAutomatically = true) 와 같음).
+     * DB값만 바뀜. count 캐시도 같이 무효화함.
+     */
+    @Transactional      //MemberRepository 의 readOnly 를 덮어씀
+    int bulkAgePlus(int age);
+
+    /**
+     * 작업 큐. runId 로 아직 처리하지 않았고 다른 워커가 임대 중이 아닌 회원을 최대 batchSize 명 가져가서
+     * claimToken 으로 lease 동안 점유함. 조건부 update 라서 여러 워커가 동시에 호출해도 같은 회원을 나눠 갖지 않음.
+     * 바로 커밋해야 다른 워커에게 보이므로 항상 새 트랜잭션.
+     * 워커가 죽으면 lease 가 끝난 뒤 다른 워커가 다시 가져감.
+     * 후보를 모두 다른 워커에게 뺏기면 후보를 다시 조회해서 시도하므로, 빈 목록은 경합이 아니라 남은 작업이 없다는 뜻
+     * @return 실제로 점유한 회원 id (비어 있으면 남은 작업 없음)
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    List<Long> claimBatch(String runId, String claimToken, int batchSize, Duration lease);
+
+    /**
+     * claimToken 으로 점유한 회원들을 runId 처리 완료로 표시하고 임대를 풂.
+     * 처리 트랜잭션 안에서 호출하면 처리 결과와 완료 표시가 함께 커밋됨.
+     * lease 가 끝나서 다른 워커가 가져간 회원은 토큰이 달라서 표시되지 않음
+     */
+    @Transactional
+    int completeClaim(String runId, String claimToken);
 }
@@ -1,20 +1,350 @@
 package study.datajpa.repository;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.CacheMode;
+import org.hibernate.jpa.QueryHints;
+import org.hibernate.query.NativeQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberSearchCondition;
 import study.datajpa.entity.Member;
 
 import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @RequiredArgsConstructor
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
+    //search 조건 비트. 조합(비트마스크) + 정렬마다 JPQL 을 한 번만 만들어서 캐시함
+    private static final int USERNAME_PREFIX = 1;
+    private static final int AGE_GOE = 1 << 1;
+    private static final int AGE_LOE = 1 << 2;
+    private static final int TEAM_NAME = 1 << 3;
+    private static final int CREATED_FROM = 1 << 4;
+    private static final int CREATED_TO = 1 << 5;
+
+    private static final Map<String, String> SEARCH_SORT_PATHS = Map.of(
+            "id", "m.id",
+            "username", "m.username",
+            "age", "m.age",
+            "createdDate", "m.createdDate",
+            "teamName", "t.name");
+    private static final int MAX_SEARCH_QUERIES = 1000;
+
+    /**
+     * 작업 큐 update 의 동기화 쿼리 스페이스. 임대 컬럼은 엔티티에서 읽기 전용이라 Member 2차 캐시를 비울 필요 없음
+     * (MemberBulkUpdateService 와 같은 이유로 아무 엔티티와도 겹치지 않는 이름)
+     */
+    private static final String LEASE_QUERY_SPACE = "member_lease";
+    private static final String CLAIMABLE = " (job_run is null or job_run <> :runId) and (lease_until is null or lease_until < :now)";
+    private static final int CLAIM_CANDIDATE_FACTOR = 4;      //후보를 넉넉히 읽고 섞어서 워커끼리 같은 행을 노리는 일을 줄임
+
     private final EntityManager em;
+    private final CountCache countCache;
+    private final UsernameBloomFilter usernameBloomFilter;
+    private final BatchedLookup batchedLookup;
+    private final Map<String, SearchQuery> searchQueries = new ConcurrentHashMap<>();
 
     @Override
     public List<Member> findMemberCustom() {
-        return em.createQuery("select m from Member m")
+        return em.createNamedQuery(Member.ALL, Member.class)
+                .getResultList();
+    }
+
+    @Override
+    public Window<Member> findAll(Cursor cursor, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit은 1 이상이어야 합니다: " + limit);
+        }
+
+        TypedQuery<Member> query;
+        if (cursor.isFirst()) {
+            query = em.createQuery("select m from Member m order by m.id asc", Member.class);
+        } else {
+            query = em.createQuery("select m from Member m where m.id > :lastId order by m.id asc", Member.class)
+                    .setParameter("lastId", cursor.getLastId());
+        }
+
+        //다음 페이지가 있는지 확인하기 위해 limit + 1 개를 가져옴 (Slice 와 같은 방식)
+        List<Member> result = query.setMaxResults(limit + 1)
+                .getResultList();
+
+        if (result.size() <= limit) {
+            return new Window<>(result, null);
+        }
+        List<Member> content = result.subList(0, limit);
+        Member last = content.get(limit - 1);
+        return new Window<>(content, Cursor.after(last.getId()).encode());
+    }
+
+    @Override
+    public boolean mightContainUsername(String username) {
+        return usernameBloomFilter.mightContain(username);
+    }
+
+    @Override
+    public Page<Member> findByAge(int age, Pageable pageable) {
+        String jpql = QueryUtils.applySorting("select m from Member m where m.age = :age", pageable.getSort(), "m");
+        List<Member> content = em.createQuery(jpql, Member.class)
+                .setParameter("age", age)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
                 .getResultList();
+
+        //마지막 페이지처럼 content 만으로 total 을 알 수 있으면 count 자체를 생략함
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> countCache.get(Member.COUNT_BY_AGE, () -> em.createNamedQuery(Member.COUNT_BY_AGE, Long.class)
+                        .setParameter("age", age)
+                        .getSingleResult(), age));
+    }
+
+    @Override
+    public Page<MemberDto> findMemberDtoPage(Pageable pageable) {
+        String jpql = QueryUtils.applySorting("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name)" +
+                " from Member m left join m.team t", pageable.getSort(), "m");
+        List<MemberDto> content = em.createQuery(jpql, MemberDto.class)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> countCache.get(Member.COUNT_ALL, () -> em.createNamedQuery(Member.COUNT_ALL, Long.class)
+                        .getSingleResult()));
+    }
+
+    @Override
+    public Page<MemberDto> search(MemberSearchCondition condition, Pageable pageable) {
+        int mask = searchMask(condition);
+        String orderBy = searchOrderBy(pageable.getSort());     //정렬 화이트리스트 검사는 매번
+        if (searchQueries.size() >= MAX_SEARCH_QUERIES) {
+            searchQueries.clear();
+        }
+        SearchQuery searchQuery = searchQueries.computeIfAbsent(mask + orderBy, key -> SearchQuery.build(mask, orderBy));
+
+        TypedQuery<MemberDto> contentQuery = em.createQuery(searchQuery.content, MemberDto.class);
+        List<Object> params = bindSearch(contentQuery, mask, condition);
+        List<MemberDto> content = contentQuery
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        LongSupplier counter = () -> {
+            TypedQuery<Long> countQuery = em.createQuery(searchQuery.count, Long.class);
+            bindSearch(countQuery, mask, condition);
+            return countQuery.getSingleResult();
+        };
+        if ((mask & TEAM_NAME) != 0) {
+            //팀 이름 변경은 Member 쓰기가 아니라서 CountCache 가 무효화되지 않음 -> 캐시하지 않음
+            return PageableExecutionUtils.getPage(content, pageable, counter);
+        }
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> countCache.get(searchQuery.count, counter, params.toArray()));
+    }
+
+    private static int searchMask(MemberSearchCondition condition) {
+        int mask = 0;
+        if (StringUtils.hasText(condition.getUsernamePrefix())) mask |= USERNAME_PREFIX;
+        if (condition.getAgeGoe() != null) mask |= AGE_GOE;
+        if (condition.getAgeLoe() != null) mask |= AGE_LOE;
+        if (StringUtils.hasText(condition.getTeamName())) mask |= TEAM_NAME;
+        if (condition.getCreatedFrom() != null) mask |= CREATED_FROM;
+        if (condition.getCreatedTo() != null) mask |= CREATED_TO;
+        return mask;
+    }
+
+    /**
+     * 정렬이 유일하지 않으면 페이지 사이에 행이 중복/누락될 수 있어서 마지막에 m.id 를 붙임
+     */
+    private static String searchOrderBy(Sort sort) {
+        StringBuilder orderBy = new StringBuilder(" order by ");
+        boolean hasId = false;
+        for (Sort.Order order : sort) {
+            String path = SEARCH_SORT_PATHS.get(order.getProperty());
+            if (path == null) {
+                throw new IllegalArgumentException("정렬할 수 없는 속성입니다: " + order.getProperty());
+            }
+            hasId |= "m.id".equals(path);
+            orderBy.append(path).append(order.isAscending() ? " asc, " : " desc, ");
+        }
+        if (hasId) {
+            return orderBy.substring(0, orderBy.length() - 2);
+        }
+        return orderBy.append("m.id asc").toString();
+    }
+
+    /**
+     * @return 바인딩한 값들 (count 캐시 키로 사용)
+     */
+    private static List<Object> bindSearch(Query query, int mask, MemberSearchCondition condition) {
+        List<Object> params = new ArrayList<>();
+        if ((mask & USERNAME_PREFIX) != 0) params.add(bind(query, "usernamePrefix", escapeLike(condition.getUsernamePrefix()) + "%"));
+        if ((mask & AGE_GOE) != 0) params.add(bind(query, "ageGoe", condition.getAgeGoe()));
+        if ((mask & AGE_LOE) != 0) params.add(bind(query, "ageLoe", condition.getAgeLoe()));
+        if ((mask & TEAM_NAME) != 0) params.add(bind(query, "teamName", condition.getTeamName()));
+        if ((mask & CREATED_FROM) != 0) params.add(bind(query, "createdFrom", condition.getCreatedFrom()));
+        if ((mask & CREATED_TO) != 0) params.add(bind(query, "createdTo", condition.getCreatedTo()));
+        return params;
+    }
+
+    private static Object bind(Query query, String name, Object value) {
+        query.setParameter(name, value);
+        return value;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * 조건 조합 하나에 대한 content/count JPQL.
+     * 같은 문자열이면 하이버네이트 쿼리 계획 캐시도 그대로 hit 함
+     */
+    private static final class SearchQuery {
+        private final String content;
+        private final String count;
+
+        private SearchQuery(String content, String count) {
+            this.content = content;
+            this.count = count;
+        }
+
+        private static SearchQuery build(int mask, String orderBy) {
+            List<String> predicates = new ArrayList<>();
+            if ((mask & USERNAME_PREFIX) != 0) predicates.add("m.username like :usernamePrefix escape '\\'");
+            if ((mask & AGE_GOE) != 0) predicates.add("m.age >= :ageGoe");
+            if ((mask & AGE_LOE) != 0) predicates.add("m.age <= :ageLoe");
+            if ((mask & TEAM_NAME) != 0) predicates.add("t.name = :teamName");
+            if ((mask & CREATED_FROM) != 0) predicates.add("m.createdDate >= :createdFrom");
+            if ((mask & CREATED_TO) != 0) predicates.add("m.createdDate < :createdTo");
+            String where = predicates.isEmpty() ? "" : " where " + String.join(" and ", predicates);
+
+            String content = "select new study.datajpa.dto.MemberDto(m.id, m.username, t.name)" +
+                    " from Member m left join m.team t" + where + orderBy;
+            //팀 조건이 없으면 count 에서는 조인 자체를 생략
+            String count = "select count(m) from Member m" + ((mask & TEAM_NAME) != 0 ? " join m.team t" : "") + where;
+            return new SearchQuery(content, count);
+        }
+    }
+
+    @Override
+    public List<Member> findAllByIdsBatched(Collection<Long> ids) {
+        return batchedLookup.fetch(ids,
+                chunk -> em.createQuery("select m from Member m where m.id in :ids", Member.class)
+                        .setParameter("ids", chunk)
+                        .getResultList(),
+                Member::getId);
+    }
+
+    @Override
+    public List<Member> findByNamesBatched(Collection<String> names) {
+        return batchedLookup.fetch(names,
+                chunk -> em.createQuery("select m from Member m where m.username in :names", Member.class)
+                        .setParameter("names", chunk)
+                        .getResultList(),
+                Member::getUsername);
+    }
+
+    @Override
+    public Stream<MemberDto> streamMemberDto(int fetchSize) {
+        //DTO 로 바로 조회해서 영속성 컨텍스트에 엔티티가 쌓이지 않음
+        return em.createQuery("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name)" +
+                        " from Member m left join m.team t order by m.id", MemberDto.class)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .setHint(QueryHints.HINT_CACHE_MODE, CacheMode.IGNORE)
+                .getResultStream();
+    }
+
+    @Override
+    @Transactional
+    public int saveAllBatched(Iterable<? extends Member> members, int batchSize) {
+        return BatchInserts.persistAll(em, members, batchSize);
+    }
+
+    @Override
+    @Transactional
+    public int bulkAgePlus(int age) {
+        int resultCount = em.createNamedQuery(Member.INCREMENT_AGE_FROM)
+                .setParameter("age", age)
+                .executeUpdate();
+        em.clear();
+        countCache.invalidateAll();     //벌크 연산은 엔티티 리스너를 거치지 않음
+        return resultCount;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @SuppressWarnings("unchecked")
+    public List<Long> claimBatch(String runId, String claimToken, int batchSize, Duration lease) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize는 1 이상이어야 합니다: " + batchSize);
+        }
+        //후보가 있었는데 전부 다른 워커가 먼저 가져간 경우(경합에서 짐)는 빈 목록(=작업 끝)이 아니라 다시 시도함.
+        //가져간 행은 다음 후보 조회에서 빠지므로 후보가 바닥나거나 하나라도 가져가면 끝남
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            List<Number> candidateRows = em.createNativeQuery("select member_id from member where" + CLAIMABLE + " order by member_id")
+                    .setParameter("runId", runId)
+                    .setParameter("now", now)
+                    .setMaxResults(batchSize * CLAIM_CANDIDATE_FACTOR)
+                    .getResultList();
+            if (candidateRows.isEmpty()) {
+                return Collections.emptyList();
+            }
+            List<Long> candidates = candidateRows.stream().map(Number::longValue).collect(Collectors.toList());
+            Collections.shuffle(candidates);
+
+            //조건을 update 에서 다시 확인하므로 그 사이 다른 워커가 가져간 행은 건너뜀 (락을 오래 기다리지 않음)
+            int updated = em.createNativeQuery("update member set claim_token = :claimToken, lease_until = :leaseUntil" +
+                            " where member_id in (:ids) and" + CLAIMABLE)
+                    .unwrap(NativeQuery.class)
+                    .addSynchronizedQuerySpace(LEASE_QUERY_SPACE)
+                    .setParameter("claimToken", claimToken)
+                    .setParameter("leaseUntil", now.plus(lease))
+                    .setParameter("ids", candidates.subList(0, Math.min(batchSize, candidates.size())))
+                    .setParameter("runId", runId)
+                    .setParameter("now", now)
+                    .executeUpdate();
+            if (updated == 0) {
+                continue;
+            }
+
+            List<Number> claimed = em.createNativeQuery("select member_id from member where claim_token = :claimToken order by member_id")
+                    .setParameter("claimToken", claimToken)
+                    .getResultList();
+            return claimed.stream().map(Number::longValue).collect(Collectors.toList());
+        }
+    }
+
+    @Override
+    @Transactional
+    public int completeClaim(String runId, String claimToken) {
+        return em.createNativeQuery("update member set job_run = :runId, claim_token = null, lease_until = null" +
+                        " where claim_token = :claimToken")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(LEASE_QUERY_SPACE)
+                .setParameter("runId", runId)
+                .setParameter("claimToken", claimToken)
+                .executeUpdate();
     }
 
 }
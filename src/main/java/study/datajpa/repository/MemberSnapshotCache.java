@@ -0,0 +1,120 @@
+package study.datajpa.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.dto.MemberSnapshot;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * id -> MemberSnapshot 공유 캐시. MemberEntityListener 가 저장/수정/삭제 시 무효화함.
+ * 벌크 연산은 스냅샷 필드(username, lastModifiedDate)를 바꾸지 않아서 무효화 대상이 아님.
+ * CountCache 와 같이 Member 쓰기가 있었던 트랜잭션 안에서 읽은 스냅샷은(롤백될 수 있음) 캐시하지 않고,
+ * 무효화 세대를 두어서 무효화 전에 읽기 시작한 옛 스냅샷이 무효화 후에 들어가지 않게 함.
+ */
+@Component
+public class MemberSnapshotCache {
+
+    private final Map<Long, MemberSnapshot> cache = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final boolean enabled;
+    private final int maxEntries;
+
+    public MemberSnapshotCache(@Value("${datajpa.member-cache.enabled:true}") boolean enabled,
+                               @Value("${datajpa.member-cache.max-entries:10000}") int maxEntries) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+    }
+
+    public Optional<MemberSnapshot> get(Long id, Function<Long, Optional<MemberSnapshot>> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        if (pendingWrites() != null) {
+            return loader.apply(id);
+        }
+        MemberSnapshot cached = cache.get(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        long loadGeneration = generation.get();
+        Optional<MemberSnapshot> loaded = loader.apply(id);
+        if (loaded.isEmpty() || pendingWrites() != null) {
+            return loaded;      //조회 직전 auto flush 로 이 트랜잭션의 쓰기가 나간 경우
+        }
+        MemberSnapshot snapshot = loaded.get();
+        if (cache.size() >= maxEntries) {
+            cache.clear();      //CountCache 와 같이 넘치면 그냥 비움
+        }
+        cache.put(id, snapshot);
+        if (generation.get() != loadGeneration) {
+            cache.remove(id, snapshot);     //읽는 사이에 무효화됨 -> 옛 값일 수 있음
+        }
+        return loaded;
+    }
+
+    /**
+     * 커밋 전에 다른 요청이 옛 값을 다시 캐시할 수 있어서 트랜잭션이 끝난 뒤(커밋/롤백 모두) 한 번 더 지움
+     */
+    public void evict(Long id) {
+        if (id == null) {
+            return;
+        }
+        remove(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && TransactionSynchronizationManager.isActualTransactionActive()) {
+            PendingWrites pending = pendingWrites();
+            if (pending == null) {
+                pending = new PendingWrites();
+                TransactionSynchronizationManager.registerSynchronization(pending);
+            }
+            pending.ids.add(id);
+        }
+    }
+
+    public void evictAll() {
+        generation.incrementAndGet();
+        cache.clear();
+    }
+
+    /**
+     * 세대를 먼저 올려야 get() 이 put 한 뒤 다시 확인할 때 무효화를 놓치지 않음
+     */
+    private void remove(Long id) {
+        generation.incrementAndGet();
+        cache.remove(id);
+    }
+
+    private PendingWrites pendingWrites() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingWrites) {
+                return (PendingWrites) synchronization;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Member 쓰기가 있었던 트랜잭션 표시. 커밋/롤백 후에 쓴 id 들을 다시 지움
+     */
+    private class PendingWrites implements TransactionSynchronization {
+        private final Set<Long> ids = new HashSet<>();
+
+        @Override
+        public void afterCompletion(int status) {
+            ids.forEach(MemberSnapshotCache.this::remove);
+        }
+    }
+}
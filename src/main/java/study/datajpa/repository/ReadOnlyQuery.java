@@ -0,0 +1,27 @@
+package study.datajpa.repository;
+
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.QueryHint;
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 조회 전용 쿼리 메서드.
+ * 조회한 엔티티를 읽기 전용으로 올려서 스냅샷을 만들지 않고 flush 때 변경 감지도 하지 않음.
+ * 이 메서드가 트랜잭션을 시작하면 readOnly 트랜잭션이라 세션 FlushMode 도 MANUAL 이 됨.
+ * 이미 쓰기 트랜잭션 안에서 호출되면 그 트랜잭션에 참여하고, 앞선 변경이 조회에 보이도록 자동 flush 는 그대로 둠.
+ * 엔티티를 수정할 목적이면 사용하면 안 됨 (수정해도 DB에 반영되지 않음).
+ * 메서드에 @QueryHints 를 따로 붙이면 이 힌트는 무시되니 같이 쓰지 말 것.
+ */
+@Target({ElementType.METHOD, ElementType.ANNOTATION_TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Transactional(readOnly = true)
+@QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true"))
+public @interface ReadOnlyQuery {
+}
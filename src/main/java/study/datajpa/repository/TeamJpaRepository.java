@@ -24,7 +24,7 @@ public class TeamJpaRepository {
     }
 
     public List<Team> findAll() {
-        return em.createQuery("select t from Team t", Team.class).getResultList();
+        return em.createNamedQuery(Team.ALL, Team.class).getResultList();
     }
 
     public Optional<Team> findById(Long id) {
@@ -33,7 +33,7 @@ public class TeamJpaRepository {
     }
 
     public long count() {
-        return em.createQuery("select count(t) from Team t", Long.class).getSingleResult();
+        return em.createNamedQuery(Team.COUNT_ALL, Long.class).getSingleResult();
     }
 
 }
@@ -0,0 +1,154 @@
+package study.datajpa.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Team;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Team.memberCount write-behind 카운터.
+ * MemberEntityListener 가 팀 가입/탈퇴를 기록하면 커밋 후에 팀별 LongAdder 에 더해두고,
+ * 주기적으로 모아서 update team set member_count = member_count + ? 로 한 번에 반영함.
+ * -> 회원이 몰려도 같은 team 행에 매번 update 락을 잡지 않음 (DB 값은 flush-interval 만큼 늦을 수 있음)
+ *
+ * MemberEntityListener 를 거쳐 EntityManagerFactory 생성 중에 만들어지므로
+ * EntityManagerFactory, 트랜잭션 매니저는 ObjectProvider 로 나중에 꺼냄 (순환 참조 방지)
+ */
+@Slf4j
+@Component
+public class TeamMemberCounter {
+
+    private static final String ADD_MEMBER_COUNT = "update team set member_count = member_count + ? where team_id = ?";
+    private static final String ADD_MEMBER_COUNTS = "update team set member_count = member_count + :delta where team_id in (:teamIds)";
+
+    private final Map<Long, LongAdder> deltas = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<PlatformTransactionManager> transactionManager;
+    private final ObjectProvider<EntityManagerFactory> emf;
+
+    public TeamMemberCounter(JdbcTemplate jdbcTemplate, ObjectProvider<PlatformTransactionManager> transactionManager,
+                             ObjectProvider<EntityManagerFactory> emf) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionManager = transactionManager;
+        this.emf = emf;
+    }
+
+    /**
+     * 트랜잭션 안이면 커밋될 때만 반영 (롤백되면 버림)
+     */
+    public void record(Long teamId, long delta) {
+        if (teamId == null || delta == 0) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            add(teamId, delta);
+            return;
+        }
+        pendingDeltas().merge(teamId, delta, Long::sum);
+    }
+
+    /**
+     * REQUIRES_NEW 로 중단된 트랜잭션과 섞이지 않도록 리소스 대신 트랜잭션 동기화 객체에 모아둠
+     */
+    private Map<Long, Long> pendingDeltas() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingDeltas) {
+                return ((PendingDeltas) synchronization).deltas;
+            }
+        }
+        PendingDeltas pending = new PendingDeltas();
+        TransactionSynchronizationManager.registerSynchronization(pending);
+        return pending.deltas;
+    }
+
+    private void add(Long teamId, long delta) {
+        deltas.computeIfAbsent(teamId, id -> new LongAdder()).add(delta);
+    }
+
+    /**
+     * sumThenReset 은 동시에 더해지는 값을 잃을 수 있어서 읽은 만큼만 빼줌
+     */
+    @Scheduled(fixedDelayString = "${datajpa.team-member-count.flush-interval-ms:1000}")
+    public synchronized int flush() {
+        List<Object[]> batch = new ArrayList<>();
+        for (Map.Entry<Long, LongAdder> entry : deltas.entrySet()) {
+            long delta = entry.getValue().sum();
+            if (delta != 0) {
+                entry.getValue().add(-delta);
+                batch.add(new Object[]{delta, entry.getKey()});
+            }
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        EntityManagerFactory factory = emf.getObject();
+        try {
+            if (factory.isOpen()) {
+                new TransactionTemplate(transactionManager.getObject())
+                        .executeWithoutResult(status -> addMemberCounts(factory, batch));
+            } else {
+                jdbcTemplate.batchUpdate(ADD_MEMBER_COUNT, batch);     //종료 중 (2차 캐시도 이미 닫힘)
+            }
+        } catch (RuntimeException e) {
+            for (Object[] row : batch) {
+                add((Long) row[1], (Long) row[0]);      //다음 주기에 다시 시도
+            }
+            log.warn("팀 회원 수 반영 실패 ({}개 팀), 다음 주기에 재시도", batch.size(), e);
+            return 0;
+        }
+        return batch.size();
+    }
+
+    /**
+     * JDBC 로 바꾼 뒤 evict 하면 그 사이 옛 행을 읽은 조회가 evict 후에 옛 값을 다시 넣을 수 있음.
+     * 하이버네이트 네이티브 update 에 Team 을 동기화 대상으로 주면 트랜잭션이 끝날 때까지 Team 리전을 soft lock 했다가 비워서
+     * 옛 값이 다시 캐시되지 않음 (리전 전체가 비워지지만 flush 주기마다 한 번뿐).
+     * 같은 증감값끼리 in 으로 묶어서 update 횟수를 줄임
+     */
+    private static void addMemberCounts(EntityManagerFactory factory, List<Object[]> batch) {
+        Map<Long, List<Long>> teamIdsByDelta = new HashMap<>();
+        for (Object[] row : batch) {
+            teamIdsByDelta.computeIfAbsent((Long) row[0], delta -> new ArrayList<>()).add((Long) row[1]);
+        }
+        EntityManager em = EntityManagerFactoryUtils.getTransactionalEntityManager(factory);
+        teamIdsByDelta.forEach((delta, teamIds) -> em.createNativeQuery(ADD_MEMBER_COUNTS)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(Team.class)
+                .setParameter("delta", delta)
+                .setParameter("teamIds", teamIds)
+                .executeUpdate());
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private class PendingDeltas implements TransactionSynchronization {
+        private final Map<Long, Long> deltas = new HashMap<>();
+
+        @Override
+        public void afterCommit() {
+            deltas.forEach(TeamMemberCounter.this::add);
+        }
+    }
+}
@@ -1,9 +1,41 @@
 package study.datajpa.repository;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.TeamDto;
 import study.datajpa.entity.Team;
 
-public interface TeamRepository extends JpaRepository<Team, Long> {
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.List;
+import java.util.Optional;
 
+public interface TeamRepository extends JpaRepository<Team, Long>, FetchJoinPagingRepository {
+
+    List<Team> findByNameStartingWith(String prefix);
+
+    @Query(value = "select new study.datajpa.dto.TeamDto(t.od, t.name, t.memberCount) from Team t",
+            countQuery = "select count(t) from Team t")
+    Page<TeamDto> findTeamDtoPage(Pageable pageable);
+
+    /**
+     * 컬렉션(members)을 fetch join 하면서도 DB 에서 페이징됨 (HHH000104 메모리 페이징 없음)
+     */
+    default Page<Team> findPageWithMembers(Pageable pageable) {
+        return findPageWithGraph(Team.class, pageable, "members");
+    }
+
+    @Lock(LockModeType.OPTIMISTIC)
+    Optional<Team> findWithOptimisticLockById(Long id);
+
+    @Transactional
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "3000"))
+    Optional<Team> findWithPessimisticLockById(Long id);
 
 }
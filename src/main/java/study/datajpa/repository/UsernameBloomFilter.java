@@ -0,0 +1,102 @@
+package study.datajpa.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 존재하는 username 을 기억하는 블룸 필터. 없는 username 조회는 DB까지 가지 않고 바로 끝냄.
+ * "없다"는 답은 항상 정확하고 "있을 수도 있다"는 답만 오탐(fpp)이 있음.
+ * 삭제는 반영하지 않음 (삭제된 이름은 오탐이 될 뿐 결과는 틀리지 않음).
+ *
+ * 시작 시 UsernameFilterInitializer 가 채우기 전까지는 항상 true 를 반환해서 DB로 보냄.
+ * 이 인스턴스를 거치지 않은 쓰기(다른 서버, 직접 SQL)는 알 수 없으니 그런 환경에서는 datajpa.username-filter.enabled=false 로 끌 것.
+ */
+@Component
+public class UsernameBloomFilter {
+
+    private final boolean enabled;
+    private final AtomicLongArray bits;
+    private final long numBits;
+    private final int numHashes;
+    private volatile boolean ready;
+
+    public UsernameBloomFilter(@Value("${datajpa.username-filter.enabled:true}") boolean enabled,
+                               @Value("${datajpa.username-filter.expected-insertions:1000000}") long expectedInsertions,
+                               @Value("${datajpa.username-filter.fpp:0.01}") double fpp) {
+        this.enabled = enabled;
+        long bitCount = (long) (-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        this.bits = new AtomicLongArray((int) ((Math.max(bitCount, 64) + 63) / 64));
+        this.numBits = bits.length() * 64L;
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+    }
+
+    public void put(String username) {
+        if (username == null) {
+            return;
+        }
+        long hash1 = hash1(username);
+        long hash2 = hash2(username);
+        for (int i = 0; i < numHashes; i++) {
+            long index = Math.floorMod(hash1 + i * hash2, numBits);
+            setBit(index);
+        }
+    }
+
+    public boolean mightContain(String username) {
+        if (!enabled || !ready) {
+            return true;
+        }
+        if (username == null) {
+            return false;
+        }
+        long hash1 = hash1(username);
+        long hash2 = hash2(username);
+        for (int i = 0; i < numHashes; i++) {
+            long index = Math.floorMod(hash1 + i * hash2, numBits);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void markReady() {
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    private void setBit(long index) {
+        int word = (int) (index >>> 6);
+        long mask = 1L << index;
+        long current;
+        do {
+            current = bits.get(word);
+            if ((current & mask) != 0) {
+                return;
+            }
+        } while (!bits.compareAndSet(word, current, current | mask));
+    }
+
+    //FNV-1a 64bit
+    private static long hash1(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    //String.hashCode 를 섞어서 두번째 해시로 사용 (홀수로 만들어 주기가 짧아지지 않게 함)
+    private static long hash2(String value) {
+        long hash = value.hashCode() * 0x9E3779B97F4A7C15L;
+        hash ^= (hash >>> 32);
+        return hash | 1;
+    }
+}
@@ -0,0 +1,37 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.stream.Stream;
+
+/**
+ * 애플리케이션이 뜬 뒤 DB에 있는 username 으로 블룸 필터를 채움.
+ * 채우는 동안 저장되는 회원은 엔티티 리스너가 넣어주기 때문에 빠지는 이름이 없음.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UsernameFilterInitializer {
+
+    private final MemberRepository memberRepository;
+    private final UsernameBloomFilter usernameBloomFilter;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void initialize() {
+        long count = 0;
+        try (Stream<String> usernames = memberRepository.streamUsernames()) {
+            for (String username : (Iterable<String>) usernames::iterator) {
+                usernameBloomFilter.put(username);
+                count++;
+            }
+        }
+        usernameBloomFilter.markReady();
+        log.info("username 블룸 필터 초기화 완료 count={}", count);
+    }
+}
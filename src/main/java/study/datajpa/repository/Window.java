@@ -0,0 +1,34 @@
+package study.datajpa.repository;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 키셋 페이징 결과. totalCount 를 가져오지 않고 다음 페이지 토큰만 들고 있음.
+ * 마지막 페이지면 nextCursor 가 null.
+ */
+@Getter
+public class Window<T> {
+
+    private final List<T> content;
+    private final String nextCursor;
+
+    public Window(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    public <U> Window<U> map(Function<? super T, ? extends U> converter) {
+        List<U> converted = content.stream()
+                .map(converter)
+                .collect(Collectors.toList());
+        return new Window<>(converted, nextCursor);
+    }
+}
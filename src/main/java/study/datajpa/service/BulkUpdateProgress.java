@@ -0,0 +1,37 @@
+package study.datajpa.service;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 청크 단위 벌크 업데이트의 진행 상황이자 체크포인트.
+ * 커밋된 마지막 청크까지의 상태라서 중간에 실패해도 이 값으로 이어서 실행할 수 있음.
+ */
+@Getter
+@ToString
+public class BulkUpdateProgress {
+
+    private final long lastId;          //여기까지(포함) 처리 완료
+    private final long updatedCount;
+    private final int chunkCount;
+    private final boolean finished;
+
+    public BulkUpdateProgress(long lastId, long updatedCount, int chunkCount, boolean finished) {
+        this.lastId = lastId;
+        this.updatedCount = updatedCount;
+        this.chunkCount = chunkCount;
+        this.finished = finished;
+    }
+
+    public static BulkUpdateProgress start() {
+        return new BulkUpdateProgress(0L, 0L, 0, false);
+    }
+
+    BulkUpdateProgress next(long lastId, int updated) {
+        return new BulkUpdateProgress(lastId, updatedCount + updated, chunkCount + 1, false);
+    }
+
+    BulkUpdateProgress finish() {
+        return new BulkUpdateProgress(lastId, updatedCount, chunkCount, true);
+    }
+}
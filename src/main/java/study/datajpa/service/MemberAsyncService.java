@@ -0,0 +1,37 @@
+package study.datajpa.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.config.AsyncConfig;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 리포지토리 조회를 DB 전용 스레드 풀에서 실행하고 CompletableFuture 로 돌려줌.
+ * 톰캣 스레드는 바로 반납되고 동시에 DB를 쓰는 작업 수는 커넥션 풀 크기로 제한됨.
+ */
+@Service
+@RequiredArgsConstructor
+public class MemberAsyncService {
+
+    private final MemberRepository memberRepository;
+
+    @Async(AsyncConfig.DB_EXECUTOR)
+    @Transactional(readOnly = true)
+    public CompletableFuture<Optional<String>> findUsername(Long id) {
+        return CompletableFuture.completedFuture(memberRepository.findById(id).map(member -> member.getUsername()));
+    }
+
+    @Async(AsyncConfig.DB_EXECUTOR)
+    @Transactional(readOnly = true)
+    public CompletableFuture<Page<MemberDto>> findMemberDtoPage(Pageable pageable) {
+        return CompletableFuture.completedFuture(memberRepository.findMemberDtoPage(pageable));
+    }
+}
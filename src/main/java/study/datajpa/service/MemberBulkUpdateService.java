@@ -0,0 +1,136 @@
+package study.datajpa.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.CountCache;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * bulkAgePlus 를 PK 순서로 chunkSize 씩 나눠서 실행함.
+ * 청크마다 별도 트랜잭션으로 커밋하기 때문에 row lock 을 오래 잡지 않고,
+ * 한 번에 전체를 clear 하는 대신 바뀐 회원만 1차, 2차 캐시에서 내림.
+ */
+@Slf4j
+@Service
+public class MemberBulkUpdateService {
+
+    /**
+     * 네이티브 update 의 동기화 대상 쿼리 스페이스.
+     * 비워두면 하이버네이트가 2차 캐시 전체를, member 로 주면 Member 리전 전체를 지우기 때문에
+     * 아무 엔티티와도 겹치지 않는 이름을 주고 바뀐 id 만 직접 지움
+     */
+    private static final String CHUNK_QUERY_SPACE = "member_chunked_update";
+
+    private final EntityManager em;
+    private final TransactionTemplate chunkTx;
+    private final CountCache countCache;
+    private final Duration pauseBetweenChunks;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public MemberBulkUpdateService(EntityManager em, PlatformTransactionManager transactionManager, CountCache countCache,
+                                   @Value("${datajpa.bulk-update.pause-between-chunks:0ms}") Duration pauseBetweenChunks) {
+        this.em = em;
+        this.chunkTx = new TransactionTemplate(transactionManager);
+        this.chunkTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.countCache = countCache;
+        this.pauseBetweenChunks = pauseBetweenChunks;
+    }
+
+    public BulkUpdateProgress bulkAgePlus(int age, int chunkSize) {
+        return bulkAgePlus(age, chunkSize, BulkUpdateProgress.start(), progress -> { });
+    }
+
+    /**
+     * @param resumeFrom 처음이면 BulkUpdateProgress.start(), 이어서 하려면 마지막으로 받은 진행 상황
+     * @param listener   청크가 커밋될 때마다 호출됨
+     */
+    public BulkUpdateProgress bulkAgePlus(int age, int chunkSize, BulkUpdateProgress resumeFrom,
+                                          Consumer<BulkUpdateProgress> listener) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize는 1 이상이어야 합니다: " + chunkSize);
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("이미 실행 중인 벌크 업데이트가 있습니다");
+        }
+
+        try {
+            BulkUpdateProgress progress = resumeFrom;
+            while (true) {
+                BulkUpdateProgress current = progress;
+                List<Long> ids = chunkTx.execute(status -> updateChunk(age, chunkSize, current.getLastId()));
+                if (ids.isEmpty()) {
+                    break;
+                }
+
+                evictFromCaches(ids);
+                progress = progress.next(ids.get(ids.size() - 1), ids.size());
+                log.debug("bulkAgePlus 진행 {}", progress);
+                listener.accept(progress);
+                pause();
+            }
+
+            BulkUpdateProgress finished = progress.finish();
+            listener.accept(finished);
+            return finished;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private List<Long> updateChunk(int age, int chunkSize, long lastId) {
+        List<Long> ids = em.createQuery("select m.id from Member m where m.id > :lastId and m.age >= :age order by m.id", Long.class)
+                .setParameter("lastId", lastId)
+                .setParameter("age", age)
+                .setMaxResults(chunkSize)
+                .getResultList();
+        if (ids.isEmpty()) {
+            return ids;
+        }
+
+        em.createNativeQuery("update member set age = age + 1, version = version + 1 where member_id in (:ids)")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(CHUNK_QUERY_SPACE)
+                .setParameter("ids", ids)
+                .executeUpdate();
+        return ids;
+    }
+
+    private void evictFromCaches(List<Long> ids) {
+        Cache secondLevelCache = em.getEntityManagerFactory().getCache();
+        //호출한 쪽 트랜잭션의 영속성 컨텍스트에 올라와 있는 회원만 준영속으로 만듦
+        boolean callerContext = TransactionSynchronizationManager.isActualTransactionActive();
+        for (Long id : ids) {
+            secondLevelCache.evict(Member.class, id);
+            if (callerContext) {
+                em.detach(em.getReference(Member.class, id));   //영속성 컨텍스트에 있으면 그 엔티티, 없으면 초기화 안 된 프록시 (SQL 없음)
+            }
+        }
+        secondLevelCache.unwrap(org.hibernate.Cache.class).evictDefaultQueryRegion();
+        countCache.invalidateAll();
+    }
+
+    private void pause() {
+        if (pauseBetweenChunks.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseBetweenChunks.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("벌크 업데이트가 중단되었습니다", e);
+        }
+    }
+}
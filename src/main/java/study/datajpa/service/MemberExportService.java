@@ -0,0 +1,86 @@
+package study.datajpa.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * 전체 회원 내보내기. 커서로 한 줄씩 읽어서 바로 써주기 때문에
+ * 회원 수와 상관없이 힙 사용량이 일정하고 첫 바이트가 바로 나감.
+ */
+@Service
+@RequiredArgsConstructor
+public class MemberExportService {
+
+    private final MemberRepository memberRepository;
+    private final EntityManager em;
+    private final ObjectMapper objectMapper;
+
+    @Value("${datajpa.export.fetch-size:1000}")
+    private int fetchSize;
+
+    @Value("${datajpa.export.clear-interval:1000}")
+    private int clearInterval;
+
+    @Transactional(readOnly = true)
+    public void exportNdjson(OutputStream out) throws IOException {
+        export(out, null, dto -> objectMapper.writeValueAsString(dto));
+    }
+
+    @Transactional(readOnly = true)
+    public void exportCsv(OutputStream out) throws IOException {
+        export(out, "id,username,teamName", dto -> dto.getId() + "," + csv(dto.getUsername()) + "," + csv(dto.getTeamName()));
+    }
+
+    private void export(OutputStream out, String header, LineFormatter formatter) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (header != null) {
+            writer.write(header);
+            writer.write('\n');
+        }
+
+        try (Stream<MemberDto> stream = memberRepository.streamMemberDto(fetchSize)) {
+            Iterator<MemberDto> iterator = stream.iterator();
+            long rows = 0;
+            while (iterator.hasNext()) {
+                writer.write(formatter.format(iterator.next()));
+                writer.write('\n');
+
+                if (++rows % clearInterval == 0) {
+                    em.clear();         //혹시 올라온 엔티티가 있으면 비워서 메모리를 일정하게 유지
+                    writer.flush();     //N건마다 클라이언트로 밀어냄
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @FunctionalInterface
+    private interface LineFormatter {
+        String format(MemberDto dto) throws IOException;
+    }
+}
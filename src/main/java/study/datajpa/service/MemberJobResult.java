@@ -0,0 +1,19 @@
+package study.datajpa.service;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class MemberJobResult {
+
+    private final String runId;
+    private final long processedCount;
+    private final int batchCount;
+
+    public MemberJobResult(String runId, long processedCount, int batchCount) {
+        this.runId = runId;
+        this.processedCount = processedCount;
+        this.batchCount = batchCount;
+    }
+}
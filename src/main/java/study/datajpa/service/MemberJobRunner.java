@@ -0,0 +1,101 @@
+package study.datajpa.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 전체 회원을 워커 N 개가 나눠서 처리하는 배치 작업 실행기.
+ * 워커마다 claimBatch 로 서로 겹치지 않는 회원 묶음을 가져가서 처리하고, 처리 트랜잭션 안에서 완료 표시를 함.
+ * 처리가 lease 보다 오래 걸려서 다른 워커가 가져간 묶음은 완료 표시가 안 되므로 롤백함 (중복 처리 없음).
+ * 워커 수만큼 커넥션을 쓰므로 커넥션 풀보다 크게 잡지 않음 (스레드만 늘고 커넥션을 기다림).
+ */
+@Slf4j
+@Service
+public class MemberJobRunner {
+
+    private final MemberRepository memberRepository;
+    private final TransactionTemplate tx;
+
+    public MemberJobRunner(MemberRepository memberRepository, PlatformTransactionManager transactionManager) {
+        this.memberRepository = memberRepository;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * @param runId 실행 id. 중간에 실패했으면 같은 값으로 다시 실행해서 처리 안 된 회원만 이어서 처리할 수 있음
+     * @param task  회원 한 명 처리. 같은 트랜잭션에서 완료 표시와 함께 커밋됨
+     * 실패한 묶음은 완료 표시 없이 롤백되고 lease 가 끝나면 다른 워커(또는 다음 실행)가 다시 가져감.
+     * 다른 워커들은 끝까지 진행하고, 마지막에 첫 실패를 던짐
+     */
+    public MemberJobResult run(String runId, int workers, int batchSize, Duration lease, Consumer<Member> task) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("workers는 1 이상이어야 합니다: " + workers);
+        }
+        AtomicLong processed = new AtomicLong();
+        AtomicInteger batches = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "member-job-" + runId);
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>(workers);
+            for (int i = 0; i < workers; i++) {
+                futures.add(CompletableFuture.runAsync(
+                        () -> work(runId, batchSize, lease, task, processed, batches), pool));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        } finally {
+            pool.shutdown();
+        }
+
+        MemberJobResult result = new MemberJobResult(runId, processed.get(), batches.get());
+        log.info("회원 작업 완료 {}", result);
+        return result;
+    }
+
+    private void work(String runId, int batchSize, Duration lease, Consumer<Member> task,
+                      AtomicLong processed, AtomicInteger batches) {
+        while (true) {
+            String claimToken = UUID.randomUUID().toString();
+            List<Long> ids = memberRepository.claimBatch(runId, claimToken, batchSize, lease);
+            if (ids.isEmpty()) {
+                return;
+            }
+            Boolean completed = tx.execute(status -> {
+                memberRepository.findAllByIdsBatched(ids).forEach(task);
+                if (memberRepository.completeClaim(runId, claimToken) != ids.size()) {
+                    //처리 중에 lease 가 끝나서 다른 워커가 가져감 -> 그 워커가 처리하므로 이 묶음의 결과는 버림
+                    status.setRollbackOnly();
+                    return false;
+                }
+                return true;
+            });
+            if (!Boolean.TRUE.equals(completed)) {
+                log.warn("lease 만료로 다른 워커에게 넘어간 묶음을 롤백함 ({}건), lease 를 늘리거나 batchSize 를 줄이세요", ids.size());
+                continue;
+            }
+            processed.addAndGet(ids.size());
+            batches.incrementAndGet();
+        }
+    }
+}
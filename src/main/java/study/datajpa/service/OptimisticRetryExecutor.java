@@ -0,0 +1,90 @@
+package study.datajpa.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.OptimisticLockException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * 낙관적 락 충돌 시 새 트랜잭션에서 처음부터 다시 실행함.
+ * 매 시도마다 새 영속성 컨텍스트라 최신 version 으로 다시 읽음. 대기 시간은 지수 증가 + 지터로 max-backoff 까지.
+ * 호출한 쪽에 트랜잭션이 있으면 잠시 중단(REQUIRES_NEW)되므로, 그 트랜잭션에서 읽은 엔티티는 결과와 다를 수 있음
+ */
+@Slf4j
+@Component
+public class OptimisticRetryExecutor {
+
+    private final TransactionTemplate tx;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final Counter retried;
+    private final Counter exhausted;
+
+    public OptimisticRetryExecutor(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                                   @Value("${datajpa.optimistic-retry.max-attempts:5}") int maxAttempts,
+                                   @Value("${datajpa.optimistic-retry.initial-backoff:10ms}") Duration initialBackoff,
+                                   @Value("${datajpa.optimistic-retry.max-backoff:200ms}") Duration maxBackoff) {
+        this.tx = new TransactionTemplate(transactionManager);
+        this.tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMillis = initialBackoff.toMillis();
+        this.maxBackoffMillis = maxBackoff.toMillis();
+        this.retried = conflicts(meterRegistry, "retried");
+        this.exhausted = conflicts(meterRegistry, "exhausted");
+    }
+
+    private static Counter conflicts(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("datajpa.optimistic.conflicts")
+                .description("낙관적 락 충돌 횟수")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    public <T> T execute(Supplier<T> work) {
+        long backoff = initialBackoffMillis;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return tx.execute(status -> work.get());
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                if (attempt >= maxAttempts) {
+                    exhausted.increment();
+                    throw e;
+                }
+                retried.increment();
+                log.debug("낙관적 락 충돌, 재시도 {}/{}", attempt, maxAttempts);
+                sleep(ThreadLocalRandom.current().nextLong(backoff + 1));     //full jitter (동시에 재시도해서 또 부딪히지 않게)
+                backoff = Math.min(backoff * 2, maxBackoffMillis);
+            }
+        }
+    }
+
+    public void run(Runnable work) {
+        execute(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("재시도 대기 중 중단되었습니다", e);
+        }
+    }
+}
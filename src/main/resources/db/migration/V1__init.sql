@@ -0,0 +1,32 @@
+-- 엔티티 매핑과 같은 스키마 (prod 프로필은 ddl-auto: validate 로 이 스키마를 검증함)
+
+create sequence member_seq start with 1 increment by 50;
+create sequence team_seq start with 1 increment by 50;
+create sequence item_seq start with 1 increment by 50;
+
+create table team (
+    team_id bigint not null,
+    name    varchar(255),
+    primary key (team_id)
+);
+
+create table member (
+    member_id          bigint  not null,
+    created_date       timestamp,
+    last_modified_date timestamp,
+    created_by         varchar(255),
+    last_modified_by   varchar(255),
+    age                integer not null,
+    username           varchar(255),
+    team_id            bigint,
+    primary key (member_id),
+    constraint fk_member_team foreign key (team_id) references team (team_id)
+);
+
+create index idx_member_username on member (username);
+create index idx_member_age_username on member (age, username);
+
+create table item (
+    id bigint not null,
+    primary key (id)
+);
@@ -0,0 +1,5 @@
+-- TeamMemberCounter 가 관리하는 비정규화 회원 수. 기존 데이터는 한 번 집계해서 채움
+alter table team add column member_count bigint default 0 not null;
+
+update team t
+set member_count = (select count(*) from member m where m.team_id = t.team_id);
@@ -0,0 +1,7 @@
+-- MemberJobRunner 작업 큐 상태 (처리 완료 실행 id, 점유 토큰, 임대 만료 시각)
+alter table member add column job_run varchar(64);
+alter table member add column claim_token varchar(36);
+alter table member add column lease_until timestamp;
+
+create index idx_member_job_lease on member (job_run, lease_until);
+create index idx_member_claim_token on member (claim_token);
@@ -0,0 +1,101 @@
+package study.datajpa.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 인메모리 H2 여러 개를 프라이머리/레플리카로 두고 라우팅을 확인함
+ */
+class ReplicationRoutingDataSourceTest {
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    public void routingTest() throws SQLException {
+        // given
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing(replica -> Duration.ZERO));
+
+        // when, then
+        assertEquals("primary", databaseOf(dataSource));
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertEquals("replica1", databaseOf(dataSource));     //라운드 로빈
+        assertEquals("replica2", databaseOf(dataSource));
+        assertEquals("replica1", databaseOf(dataSource));
+    }
+
+    @Test
+    public void lagFallbackTest() throws SQLException {
+        // given
+        Map<DataSource, Duration> lags = new LinkedHashMap<>();
+        ReplicationRoutingDataSource routing = routing(replica -> lags.getOrDefault(replica, Duration.ZERO));
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // when
+        lags.put(routing.getResolvedDataSources().get("replica1"), Duration.ofMinutes(1));
+        routing.refreshReplicaHealth();
+
+        // then
+        assertEquals("replica2", databaseOf(dataSource));
+        assertEquals("replica2", databaseOf(dataSource));
+
+        // 모든 레플리카가 지연되면 프라이머리
+        lags.put(routing.getResolvedDataSources().get("replica2"), Duration.ofMinutes(1));
+        routing.refreshReplicaHealth();
+        assertEquals("primary", databaseOf(dataSource));
+    }
+
+    @Test
+    public void closeReplicasOnDestroyTest() {
+        // given
+        HikariDataSource replica = new HikariDataSource();
+        replica.setJdbcUrl("jdbc:h2:mem:closeReplica;DB_CLOSE_DELAY=-1");
+        replica.setUsername("sa");
+        ReplicationRoutingDataSource routing = new ReplicationRoutingDataSource(h2("primary"), Map.of("replica", replica),
+                ReplicationRoutingDataSource.Balancing.ROUND_ROBIN, r -> Duration.ZERO, Duration.ofSeconds(5));
+
+        // when
+        routing.destroy();
+
+        // then
+        assertTrue(replica.isClosed());
+    }
+
+    private static ReplicationRoutingDataSource routing(ReplicaLagProbe probe) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica1", h2("replica1"));
+        replicas.put("replica2", h2("replica2"));
+        ReplicationRoutingDataSource routing = new ReplicationRoutingDataSource(h2("primary"), replicas,
+                ReplicationRoutingDataSource.Balancing.ROUND_ROBIN, probe, Duration.ofSeconds(5));
+        routing.afterPropertiesSet();
+        return routing;
+    }
+
+    private static DataSource h2(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    private static String databaseOf(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            String url = connection.getMetaData().getURL();
+            return url.substring("jdbc:h2:mem:".length(), url.indexOf(';') > 0 ? url.indexOf(';') : url.length());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package study.datajpa.controller;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 요청마다 별도 트랜잭션으로 조회하도록 테스트 트랜잭션을 걸지 않음 (만든 회원은 끝나고 지움)
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class MemberControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    private final List<Member> saved = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAll(saved);
+    }
+
+    @Test
+    public void listCountCachedTest() throws Exception {
+        // given
+        saved.add(memberRepository.save(new Member("listCount1")));
+        saved.add(memberRepository.save(new Member("listCount2")));
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        long before = statistics.getQueryStatistics("select count(m) from Member m").getExecutionCount();
+
+        // when
+        mockMvc.perform(get("/members").param("page", "0").param("size", "1"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/members").param("page", "1").param("size", "1"))
+                .andExpect(status().isOk());
+
+        // then
+        assertEquals(before + 1, statistics.getQueryStatistics("select count(m) from Member m").getExecutionCount());   //두 번째 페이지는 캐시된 count 사용
+    }
+
+    @Test
+    public void keysetBadRequestTest() throws Exception {
+        mockMvc.perform(get("/members/keyset").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/members/keyset").param("size", "0"))
+                .andExpect(status().isOk());        //1 로 맞춤
+    }
+}
@@ -0,0 +1,81 @@
+package study.datajpa.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 요청이 테스트 스레드에서 바로 실행되도록 트랜잭션을 걸지 않음 (커밋된 데이터를 조회, 만든 회원은 끝나고 지움)
+ */
+@SpringBootTest(properties = "datajpa.sql-metrics.header-enabled=true")
+@AutoConfigureMockMvc
+class SqlMetricsTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    private final List<Member> saved = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAll(saved);
+    }
+
+    @Test
+    public void sqlCountHeaderTest() throws Exception {
+        // given
+        Member member = memberRepository.save(new Member("sqlCount"));
+        saved.add(member);
+        emf.getCache().evict(Member.class, member.getId());     //2차 캐시에 있으면 쿼리가 안 나감
+
+        // when, then
+        mockMvc.perform(get("/members/{id}", member.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(SqlCountHeaderAdvice.HEADER, "1"));     //member 조회 1번 (team 은 지연 로딩)
+    }
+
+    @Test
+    public void statementTimerTagTest() {
+        // given
+        Member member = memberRepository.save(new Member("sqlTag"));
+        saved.add(member);
+        emf.getCache().evict(Member.class, member.getId());
+        long before = statementCount("MemberRepository.findById");
+
+        // when
+        memberRepository.findById(member.getId());
+
+        // then
+        assertEquals(before + 1, statementCount("MemberRepository.findById"));
+    }
+
+    private long statementCount(String method) {
+        Timer timer = meterRegistry.find("datajpa.sql.statements").tag("method", method).timer();
+        return timer != null ? timer.count() : 0;
+    }
+}
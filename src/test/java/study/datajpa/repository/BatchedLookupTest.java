@@ -0,0 +1,46 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "datajpa.bulk-lookup.parallel=true",
+        "datajpa.bulk-lookup.chunk-size=2"})
+@Transactional
+class BatchedLookupTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    public void parallelInTransactionTest() {
+        // given
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(memberRepository.save(new Member("lookup" + i)).getId());
+        }
+        em.flush();
+        em.clear();
+
+        // when
+        List<Member> result = memberRepository.findAllByIdsBatched(ids);
+
+        // then
+        assertEquals(ids, result.stream().map(Member::getId).collect(Collectors.toList()));
+        assertTrue(result.stream().allMatch(em::contains));     //트랜잭션 안에서는 호출 스레드에서 조회해서 영속 상태
+    }
+}
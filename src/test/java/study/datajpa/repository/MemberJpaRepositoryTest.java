@@ -1,5 +1,7 @@
 package study.datajpa.repository;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,6 +10,9 @@ import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.entity.Member;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,6 +26,9 @@ class MemberJpaRepositoryTest {
     @Autowired
     MemberJpaRepository memberJpaRepository;
 
+    @PersistenceContext
+    EntityManager em;
+
     @Test
     public void MemberRepositoryTest() {
 
@@ -72,6 +80,25 @@ class MemberJpaRepositoryTest {
 
     }
 
+    @Test
+    public void saveAllBatchedTest() {
+        // given
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            members.add(new Member("batch" + i, 30));
+        }
+
+        // when
+        int savedCount = memberJpaRepository.saveAllBatched(members, 100);
+
+        // then
+        assertEquals(250, savedCount);
+        for (Member member : members) {
+            assertNotNull(member.getId());      //시퀀스에서 블록 단위로 할당받은 id
+        }
+        assertNotNull(memberJpaRepository.find(members.get(249).getId()));
+    }
+
     @Test
     public void findByUsernameAndAgeGreaterThenTest() {
 
@@ -133,4 +160,21 @@ class MemberJpaRepositoryTest {
         assertEquals(resultCount, 3);
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void namedQueryPlanCacheTest() {
+        // given
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // when
+        memberJpaRepository.findAll();
+        memberJpaRepository.count();
+        memberJpaRepository.findByPage(10, 0, 3);
+
+        // then
+        //named query 는 기동 시 계획 캐시에 올라가 있어서 파싱(miss) 없이 hit 만 있어야 함
+        assertEquals(0, statistics.getQueryPlanCacheMissCount());
+        assertTrue(statistics.getQueryPlanCacheHitCount() > 0);
+    }
+}
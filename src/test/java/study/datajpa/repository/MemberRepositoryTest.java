@@ -1,5 +1,7 @@
 package study.datajpa.repository;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -7,15 +9,27 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.test.annotation.Rollback;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberSearchCondition;
+import study.datajpa.dto.MemberSnapshot;
+import study.datajpa.dto.MemberSummary;
 import study.datajpa.entity.Member;
 import study.datajpa.entity.Team;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -29,6 +43,15 @@ class MemberRepositoryTest {
     @Autowired
     TeamRepository teamRepository;
 
+    @Autowired
+    MemberSnapshotCache memberSnapshotCache;
+
+    @Autowired
+    CountCache countCache;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
     @PersistenceContext
     EntityManager em;
 
@@ -153,6 +176,47 @@ class MemberRepositoryTest {
         }
     }
 
+    @Test
+    public void streamMemberDtoTest() {
+        // given
+        Team team = new Team("streamTeam");
+        teamRepository.save(team);
+        memberRepository.save(new Member("streamMember", 10, team));
+
+        // when
+        List<MemberDto> result;
+        try (Stream<MemberDto> stream = memberRepository.streamMemberDto(100)) {
+            result = stream.filter(dto -> "streamMember".equals(dto.getUsername()))
+                    .collect(Collectors.toList());
+        }
+
+        // then
+        assertEquals(1, result.size());
+        assertEquals("streamTeam", result.get(0).getTeamName());
+    }
+
+    @Test
+    public void projectionPageTest() {
+        // given
+        Team team = new Team("projectionTeam");
+        teamRepository.save(team);
+        memberRepository.save(new Member("projection1", 10, team));
+        memberRepository.save(new Member("projection2", 10, team));
+
+        PageRequest pageRequest = PageRequest.of(0, 100, Sort.by(Sort.Direction.DESC, "id"));
+
+        // when
+        Page<MemberDto> dtoPage = memberRepository.findMemberDtoPage(pageRequest);
+        Page<MemberSummary> summaryPage = memberRepository.findProjectedBy(pageRequest, MemberSummary.class);
+
+        // then
+        assertEquals("projection2", dtoPage.getContent().get(0).getUsername());
+        assertEquals("projectionTeam", dtoPage.getContent().get(0).getTeamName());
+        assertEquals("projection2", summaryPage.getContent().get(0).getUsername());
+        assertEquals("projectionTeam", summaryPage.getContent().get(0).getTeamName());
+        assertEquals(dtoPage.getTotalElements(), summaryPage.getTotalElements());
+    }
+
     @Test
     public void findNamesTest() {
         // given
@@ -169,6 +233,23 @@ class MemberRepositoryTest {
         }
     }
 
+    @Test
+    public void readOnlyQueryTest() {
+        // given
+        memberRepository.save(new Member("readOnly", 10));
+        em.flush();
+        em.clear();
+
+        // when
+        Member member = memberRepository.findListByUsername("readOnly").get(0);
+        member.setAge(99);      //읽기 전용으로 조회했기 때문에 변경 감지 대상이 아님
+        em.flush();
+        em.clear();
+
+        // then
+        assertEquals(10, memberRepository.findById(member.getId()).get().getAge());
+    }
+
     @Test
     public void returnTypeTest() {
         // given
@@ -184,15 +265,49 @@ class MemberRepositoryTest {
 
 
     @Test
-    public void pageableTest() {
+    public void usernameFilterTest() {
         // given
-        memberRepository.save(new Member("member1", 10));
-        memberRepository.save(new Member("member2", 10));
-        memberRepository.save(new Member("member3", 10));
-        memberRepository.save(new Member("member4", 10));
-        memberRepository.save(new Member("member5", 10));
+        memberRepository.save(new Member("filterMember", 10));
 
-        int age = 10;
+        Member renamed = memberRepository.save(new Member("beforeRename", 10));
+        renamed.setUsername("afterRename-" + System.nanoTime());     //flush 전에 변경 -> insert 에 바뀐 이름이 들어감
+        em.flush();
+
+        //필터가 없다고 답하는 이름 (오탐률 1% 라 몇 번 안에 나옴)
+        String missing = null;
+        for (int i = 0; i < 100 && missing == null; i++) {
+            String candidate = "noSuchMember-" + System.nanoTime() + "-" + i;
+            if (!memberRepository.mightContainUsername(candidate)) {
+                missing = candidate;
+            }
+        }
+        assertNotNull(missing);     //필터가 꺼져 있거나 항상 true 면 실패
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // when
+        Optional<Member> notFound = memberRepository.findOptionalByUsernameFiltered(missing);
+        long statementsForMiss = statistics.getPrepareStatementCount();
+        Optional<Member> found = memberRepository.findOptionalByUsernameFiltered("filterMember");
+
+        // then
+        assertTrue(notFound.isEmpty());
+        assertEquals(0, statementsForMiss);        //없는 이름은 select 없이 바로 반환
+        assertTrue(found.isPresent());
+        assertTrue(memberRepository.mightContainUsername(renamed.getUsername()));
+        assertTrue(memberRepository.findOptionalByUsernameFiltered(renamed.getUsername()).isPresent());
+    }
+
+    @Test
+    public void pageableTest() {
+        // given
+        int age = 11;      //다른 테스트가 커밋한 회원과 나이가 겹치지 않게
+        memberRepository.save(new Member("member1", age));
+        memberRepository.save(new Member("member2", age));
+        memberRepository.save(new Member("member3", age));
+        memberRepository.save(new Member("member4", age));
+        memberRepository.save(new Member("member5", age));
 
         PageRequest pageRequest = PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "username"));
 
@@ -223,6 +338,41 @@ class MemberRepositoryTest {
     }
 
 
+    @Test
+    public void cachedCountTest() {
+        // given
+        memberRepository.save(new Member("count1", 77));
+        memberRepository.save(new Member("count2", 77));
+        memberRepository.save(new Member("count3", 77));
+
+        PageRequest pageRequest = PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "username"));
+        Page<Member> page = memberRepository.findByAge(77, pageRequest);
+        assertEquals(3, page.getTotalElements());
+
+        // when
+        memberRepository.save(new Member("count4", 77));     //저장하면 count 캐시가 무효화됨
+        Page<Member> afterSave = memberRepository.findByAge(77, pageRequest);
+
+        // then
+        assertEquals(4, afterSave.getTotalElements());
+        assertEquals(2, afterSave.getContent().size());
+    }
+
+    @Test
+    public void countCacheSkipsPendingWritesTest() {
+        // given
+        memberRepository.save(new Member("pendingCount", 78));
+        em.flush();         //@PostPersist 에서 무효화 -> 이 트랜잭션은 쓰기 있음
+
+        // when
+        long first = countCache.get("pendingCountTest", () -> 1L);
+        long second = countCache.get("pendingCountTest", () -> 2L);
+
+        // then
+        assertEquals(1, first);
+        assertEquals(2, second);        //커밋 전 값은 다른 요청과 공유하지 않음
+    }
+
     @Test
     public void bulkUpdateTest() {
         // given
@@ -275,6 +425,142 @@ class MemberRepositoryTest {
         }
     }
 
+    @Test
+    public void keysetPagingTest() {
+        // given
+        for (int i = 0; i < 5; i++) {
+            memberRepository.save(new Member("keyset" + i, 10));
+        }
+
+        // when
+        Window<Member> first = memberRepository.findAll(Cursor.first(), 2);
+        Window<Member> second = memberRepository.findAll(Cursor.decode(first.getNextCursor()), 2);
+
+        // then
+        assertEquals(2, first.getContent().size());
+        assertTrue(first.hasNext());
+        Long lastIdOfFirst = first.getContent().get(1).getId();
+        for (Member member : second.getContent()) {
+            assertTrue(member.getId() > lastIdOfFirst);     //커서 이후의 회원만 조회
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)     //쓰기가 있는 트랜잭션 안에서는 캐시하지 않으므로 커밋하면서 확인
+    public void memberSnapshotCacheTest() {
+        // given
+        Member member = memberRepository.save(new Member("snapshot", 10));
+        Long id = member.getId();
+        MemberSnapshot first = memberSnapshotCache.get(id, memberRepository::findSnapshotById).get();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        // when
+        MemberSnapshot cached = memberSnapshotCache.get(id, x -> Optional.empty());     //캐시에 있으면 로더를 부르지 않음
+        MemberSnapshot inRolledBack = tx.execute(status -> {
+            memberRepository.findById(id).get().setUsername("rolledBack");
+            em.flush();         //@PostUpdate -> 이 트랜잭션은 쓰기 있음
+            status.setRollbackOnly();
+            return memberSnapshotCache.get(id, memberRepository::findSnapshotById).get();
+        });
+        MemberSnapshot afterRollback = memberSnapshotCache.get(id, memberRepository::findSnapshotById).get();
+        tx.executeWithoutResult(status -> memberRepository.findById(id).get().setUsername("snapshot2"));     //@PostUpdate 에서 무효화
+        MemberSnapshot reloaded = memberSnapshotCache.get(id, memberRepository::findSnapshotById).get();
+
+        memberSnapshotCache.evict(id);
+        memberSnapshotCache.get(id, x -> {
+            memberSnapshotCache.evict(x);       //읽는 사이 다른 트랜잭션이 커밋하고 무효화함
+            return Optional.of(reloaded);
+        });
+
+        // then
+        assertSame(first, cached);
+        assertEquals("snapshot", first.getUsername());
+        assertEquals("rolledBack", inRolledBack.getUsername());
+        assertEquals("snapshot", afterRollback.getUsername());      //롤백된 스냅샷은 캐시에 남지 않음
+        assertEquals("snapshot2", reloaded.getUsername());
+        assertTrue(memberSnapshotCache.get(id, x -> Optional.empty()).isEmpty());     //무효화 전에 읽은 값은 캐시되지 않음
+    }
+
+    @Test
+    public void findAllByIdsBatchedTest() {
+        // given
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(memberRepository.save(new Member("batched" + i, 10)).getId());
+        }
+        Collections.reverse(ids);
+        ids.add(-1L);               //없는 id
+        ids.add(ids.get(0));        //중복 id
+
+        // when
+        List<Member> result = memberRepository.findAllByIdsBatched(ids);
+        List<Member> byNames = memberRepository.findByNamesBatched(Arrays.asList("batched3", "batched1"));
+
+        // then
+        assertEquals(ids.subList(0, 5), result.stream().map(Member::getId).collect(Collectors.toList()));     //입력 순서 유지
+        assertEquals(Arrays.asList("batched3", "batched1"), byNames.stream().map(Member::getUsername).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void searchTest() {
+        // given
+        Team teamA = teamRepository.save(new Team("searchTeamA"));
+        Team teamB = teamRepository.save(new Team("searchTeamB"));
+        memberRepository.save(new Member("search_1", 10, teamA));
+        memberRepository.save(new Member("search_2", 20, teamA));
+        memberRepository.save(new Member("search_3", 30, teamA));
+        memberRepository.save(new Member("search_4", 20, teamB));
+        memberRepository.save(new Member("searchX5", 20, teamA));     //'_' 는 와일드카드가 아니어야 함
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsernamePrefix("search_");
+        condition.setAgeGoe(15);
+        condition.setTeamName("searchTeamA");
+
+        // when
+        Page<MemberDto> page = memberRepository.search(condition, PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "age")));
+        Page<MemberDto> again = memberRepository.search(condition, PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "age")));
+
+        // then
+        assertEquals(Arrays.asList("search_3", "search_2"), page.getContent().stream().map(MemberDto::getUsername).collect(Collectors.toList()));
+        assertEquals("searchTeamA", page.getContent().get(0).getTeamName());
+        assertEquals(2, again.getTotalElements());
+        assertThrows(IllegalArgumentException.class,
+                () -> memberRepository.search(condition, PageRequest.of(0, 10, Sort.by("team.name; drop table member"))));
+
+        //팀 이름 변경은 Member 쓰기가 아니어도 count 에 반영되어야 함
+        teamB.setName("searchTeamA");
+        em.flush();
+        assertEquals(3, memberRepository.search(condition, PageRequest.of(0, 1, Sort.by("age"))).getTotalElements());
+    }
+
+    @Test
+    public void searchCreatedDateTest() {
+        // given
+        LocalDateTime start = LocalDateTime.now().minusSeconds(1);
+        memberRepository.save(new Member("created_1", 10));
+        memberRepository.save(new Member("created_2", 20));
+        memberRepository.save(new Member("created_3", 30));
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsernamePrefix("created_");
+        condition.setCreatedFrom(start);
+        condition.setCreatedTo(LocalDateTime.now().plusSeconds(1));
+
+        // when
+        Page<MemberDto> page = memberRepository.search(condition, PageRequest.of(0, 2, Sort.by("createdDate")));
+        long planMisses = statistics.getQueryPlanCacheMissCount();
+        condition.setCreatedTo(start);      //값만 바뀌고 조건 조합은 같음
+        Page<MemberDto> before = memberRepository.search(condition, PageRequest.of(0, 2, Sort.by("createdDate")));
+
+        // then
+        assertEquals(3, page.getTotalElements());
+        assertEquals(Arrays.asList("created_1", "created_2"), page.getContent().stream().map(MemberDto::getUsername).collect(Collectors.toList()));
+        assertEquals(0, before.getTotalElements());
+        assertEquals(planMisses, statistics.getQueryPlanCacheMissCount());     //같은 JPQL 을 재사용해서 계획을 다시 만들지 않음
+    }
+
     @Test
     public void callCustom() {
         // given
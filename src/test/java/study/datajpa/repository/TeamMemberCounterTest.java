@@ -0,0 +1,75 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 커밋 후에 반영되는 카운터라 테스트 트랜잭션을 걸지 않음 (커밋한 회원, 팀은 테스트마다 지움)
+ */
+@SpringBootTest
+class TeamMemberCounterTest {
+
+    @Autowired
+    TeamMemberCounter teamMemberCounter;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private final List<Long> savedMembers = new ArrayList<>();
+    private final List<Long> savedTeams = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllById(savedMembers);
+        teamRepository.deleteAllById(savedTeams);
+        teamMemberCounter.flush();
+    }
+
+    @Test
+    public void memberCountTest() {
+        // given
+        Team teamA = teamRepository.save(new Team("counterA"));
+        Team teamB = teamRepository.save(new Team("counterB"));
+        Member member1 = memberRepository.save(new Member("counter1", 10, teamA));
+        Member member2 = memberRepository.save(new Member("counter2", 10, teamA));
+        Member member3 = memberRepository.save(new Member("counter3", 10, teamB));
+        savedTeams.add(teamA.getOd());
+        savedTeams.add(teamB.getOd());
+        savedMembers.add(member1.getId());
+        savedMembers.add(member3.getId());      //member2 는 테스트에서 지움
+
+        // when
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Member member = memberRepository.findById(member1.getId()).get();
+            member.changeTeam(teamRepository.findById(teamB.getOd()).get());
+        });
+        memberRepository.deleteById(member2.getId());
+        tx.executeWithoutResult(status -> {
+            memberRepository.save(new Member("rollback", 10, teamRepository.findById(teamA.getOd()).get()));
+            status.setRollbackOnly();       //롤백된 변경은 반영되지 않음
+        });
+        teamMemberCounter.flush();
+
+        // then
+        assertEquals(0, teamRepository.findById(teamA.getOd()).get().getMemberCount());
+        assertEquals(2, teamRepository.findById(teamB.getOd()).get().getMemberCount());
+    }
+}
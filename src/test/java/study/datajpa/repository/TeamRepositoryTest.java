@@ -0,0 +1,100 @@
+package study.datajpa.repository;
+
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class TeamRepositoryTest {
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    public void batchFetchTest() {
+        // given
+        long fewTeams = countStatementsLoadingMembers("batchA", 3);
+        long manyTeams = countStatementsLoadingMembers("batchB", 30);
+
+        // then
+        //팀 수와 상관없이 (팀 조회 1번 + members in 조회 1번) 이어야 함, 늘어나면 N+1
+        assertEquals(fewTeams, manyTeams);
+        assertTrue(manyTeams <= 2);
+    }
+
+    @Test
+    public void pageWithGraphTest() {
+        // given
+        for (int i = 0; i < 5; i++) {
+            Team team = teamRepository.save(new Team("graphPage" + i));
+            memberRepository.save(new Member("graphPage" + i + "_1", 10, team));
+            memberRepository.save(new Member("graphPage" + i + "_2", 10, team));
+        }
+        em.flush();
+        em.clear();
+        PageRequest pageRequest = PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "name").and(Sort.by("od")));   //다른 테스트의 같은 이름 팀이 있어도 순서가 정해지도록
+        List<Long> expectedIds = teamRepository.findAll(pageRequest).map(Team::getOd).getContent();
+        em.clear();
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // when
+        Page<Team> page = teamRepository.findPageWithMembers(pageRequest);
+
+        // then
+        assertEquals(expectedIds, page.getContent().stream().map(Team::getOd).collect(Collectors.toList()));    //정렬 순서 유지
+        for (Team team : page.getContent()) {
+            assertTrue(Hibernate.isInitialized(team.getMembers()));
+        }
+        assertTrue(statistics.getPrepareStatementCount() <= 3);     //id 페이지 + in 조회 + count
+    }
+
+    private long countStatementsLoadingMembers(String prefix, int teamCount) {
+        for (int i = 0; i < teamCount; i++) {
+            Team team = new Team(prefix + i);
+            teamRepository.save(team);
+            memberRepository.save(new Member(prefix + "member" + i + "_1", 10, team));
+            memberRepository.save(new Member(prefix + "member" + i + "_2", 10, team));
+        }
+        em.flush();
+        em.clear();
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // when
+        List<Team> teams = teamRepository.findByNameStartingWith(prefix);
+        for (Team team : teams) {
+            for (Member member : team.getMembers()) {
+                assertNotNull(member.getUsername());
+            }
+        }
+
+        assertEquals(teamCount, teams.size());
+        return statistics.getPrepareStatementCount();
+    }
+}
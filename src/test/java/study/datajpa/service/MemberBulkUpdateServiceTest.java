@@ -0,0 +1,82 @@
+package study.datajpa.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 청크마다 별도 트랜잭션으로 커밋하기 때문에 테스트 트랜잭션을 걸지 않음.
+ * bulkAgePlus 는 나이 조건에 맞는 모든 회원을 바꾸므로 커밋한 회원은 테스트마다 지움
+ */
+@SpringBootTest
+class MemberBulkUpdateServiceTest {
+
+    @Autowired
+    MemberBulkUpdateService memberBulkUpdateService;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    private final List<Long> saved = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllById(saved);
+    }
+
+    @Test
+    public void chunkedBulkAgePlusTest() {
+        // given
+        List<Member> members = saveMembers("chunk", 5, 1000);
+
+        // when
+        List<BulkUpdateProgress> progresses = new ArrayList<>();
+        BulkUpdateProgress result = memberBulkUpdateService.bulkAgePlus(1000, 2, BulkUpdateProgress.start(), progresses::add);
+
+        // then
+        assertTrue(result.isFinished());
+        assertEquals(5, result.getUpdatedCount());
+        assertEquals(4, progresses.size());     //청크 3개 + 완료
+        for (Member member : members) {
+            assertEquals(1001, memberRepository.findById(member.getId()).get().getAge());
+        }
+    }
+
+    @Test
+    public void resumeFromCheckpointTest() {
+        // given
+        List<Member> members = saveMembers("resume", 4, 2000);
+        List<BulkUpdateProgress> checkpoints = new ArrayList<>();
+
+        // when
+        assertThrows(IllegalStateException.class, () ->
+                memberBulkUpdateService.bulkAgePlus(2000, 2, BulkUpdateProgress.start(), progress -> {
+                    checkpoints.add(progress);
+                    throw new IllegalStateException("첫 청크 후 중단");
+                }));
+        BulkUpdateProgress result = memberBulkUpdateService.bulkAgePlus(2000, 2, checkpoints.get(0), progress -> { });
+
+        // then
+        assertEquals(4, result.getUpdatedCount());
+        for (Member member : members) {
+            assertEquals(2001, memberRepository.findById(member.getId()).get().getAge());    //중복 없이 한번씩만
+        }
+    }
+
+    private List<Member> saveMembers(String prefix, int count, int age) {
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            members.add(memberRepository.save(new Member(prefix + i, age)));
+        }
+        members.forEach(member -> saved.add(member.getId()));
+        return members;
+    }
+}
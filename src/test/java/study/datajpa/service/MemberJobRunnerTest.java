@@ -0,0 +1,118 @@
+package study.datajpa.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManagerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 워커마다 별도 트랜잭션으로 커밋하기 때문에 테스트 트랜잭션을 걸지 않음 (커밋한 회원은 테스트마다 지움)
+ */
+@SpringBootTest
+class MemberJobRunnerTest {
+
+    @Autowired
+    MemberJobRunner memberJobRunner;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    private final List<Long> saved = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllById(saved);
+    }
+
+    @Test
+    public void noDuplicateWorkTest() {
+        // given
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            members.add(new Member("job" + i, 10));
+        }
+        memberRepository.saveAllBatched(members, 100);
+        members.forEach(member -> saved.add(member.getId()));
+        String runId = "test-" + UUID.randomUUID();
+        Map<Long, AtomicInteger> processed = new ConcurrentHashMap<>();
+
+        // when
+        MemberJobResult result = memberJobRunner.run(runId, 4, 20, Duration.ofMinutes(1),
+                member -> processed.computeIfAbsent(member.getId(), id -> new AtomicInteger()).incrementAndGet());
+
+        // then
+        for (Member member : members) {
+            assertEquals(1, processed.get(member.getId()).get());      //모든 회원을 정확히 한 번씩
+        }
+        processed.values().forEach(count -> assertEquals(1, count.get()));
+        assertEquals(processed.size(), result.getProcessedCount());
+        emf.getCache().evict(Member.class);     //작업 큐 컬럼은 2차 캐시에 반영되지 않음
+        assertEquals(runId, memberRepository.findById(members.get(0).getId()).get().getJobRun());
+    }
+
+    @Test
+    public void resumeSkipsCompletedTest() {
+        // given
+        Member member = memberRepository.save(new Member("jobResume", 10));
+        saved.add(member.getId());
+        String runId = "resume-" + UUID.randomUUID();
+        memberJobRunner.run(runId, 2, 50, Duration.ofMinutes(1), m -> { });
+
+        // when
+        AtomicInteger again = new AtomicInteger();
+        memberJobRunner.run(runId, 2, 50, Duration.ofMinutes(1), m -> again.incrementAndGet());
+
+        // then
+        assertEquals(0, again.get());       //같은 실행 id 로 다시 돌리면 남은 작업 없음
+        emf.getCache().evict(Member.class);
+        assertEquals(runId, memberRepository.findById(member.getId()).get().getJobRun());
+        assertNull(memberRepository.findById(member.getId()).get().getClaimToken());
+    }
+
+    @Test
+    public void leaseLostTest() throws InterruptedException {
+        // given
+        saved.add(memberRepository.save(new Member("jobLease", 10)).getId());
+        String runId = "lease-" + UUID.randomUUID();
+        String slowToken = UUID.randomUUID().toString();
+        List<Long> slowIds = memberRepository.claimBatch(runId, slowToken, 5, Duration.ofMillis(1));
+        Thread.sleep(20);       //lease 만료
+
+        // when
+        //다른 워커가 남은 작업을 모두 가져감 (만료된 묶음 포함)
+        List<String> otherTokens = new ArrayList<>();
+        List<Long> otherIds = new ArrayList<>();
+        while (true) {
+            String otherToken = UUID.randomUUID().toString();
+            List<Long> claimed = memberRepository.claimBatch(runId, otherToken, 500, Duration.ofMinutes(1));
+            if (claimed.isEmpty()) {
+                break;
+            }
+            otherTokens.add(otherToken);
+            otherIds.addAll(claimed);
+        }
+
+        // then
+        assertFalse(slowIds.isEmpty());
+        assertTrue(otherIds.containsAll(slowIds));
+        assertEquals(0, memberRepository.completeClaim(runId, slowToken));  //늦은 워커는 완료 표시 못 함 -> MemberJobRunner 가 롤백
+        otherTokens.forEach(token -> memberRepository.completeClaim(runId, token));
+    }
+}
@@ -0,0 +1,115 @@
+package study.datajpa.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 시도마다 별도 트랜잭션으로 커밋하기 때문에 테스트 트랜잭션을 걸지 않음 (커밋한 회원은 테스트마다 지움)
+ */
+@SpringBootTest
+class OptimisticRetryExecutorTest {
+
+    @Autowired
+    OptimisticRetryExecutor optimisticRetryExecutor;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    private final List<Long> saved = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllById(saved);
+    }
+
+    @Test
+    public void retryOnConflictTest() {
+        // given
+        Long id = save(new Member("retry", 10));
+        AtomicInteger attempts = new AtomicInteger();
+        double retriedBefore = retriedCount();
+
+        // when
+        optimisticRetryExecutor.run(() -> {
+            Member member = memberRepository.findById(id).get();
+            if (attempts.incrementAndGet() == 1) {
+                concurrentAgeChange(id);        //읽은 뒤 다른 트랜잭션이 먼저 커밋함
+            }
+            member.setUsername("retried");
+        });
+
+        // then
+        Member result = memberRepository.findById(id).get();
+        assertEquals(2, attempts.get());
+        assertEquals("retried", result.getUsername());
+        assertEquals(11, result.getAge());       //다른 트랜잭션의 변경도 유지됨 (lost update 없음)
+        assertEquals(retriedBefore + 1, retriedCount());
+    }
+
+    @Test
+    public void bulkUpdateBumpsVersionTest() {
+        // given
+        Long id = save(new Member("bulkVersion", 3000));
+        Long before = memberRepository.findById(id).get().getVersion();
+
+        // when
+        memberRepository.bulkAgePlus(3000);
+
+        // then
+        assertEquals(before + 1, memberRepository.findById(id).get().getVersion());
+    }
+
+    @Test
+    public void giveUpAfterMaxAttemptsTest() {
+        // given
+        Long id = save(new Member("exhausted", 10));
+
+        // when, then
+        assertThrows(OptimisticLockingFailureException.class, () ->
+                optimisticRetryExecutor.run(() -> {
+                    Member member = memberRepository.findById(id).get();
+                    concurrentAgeChange(id);    //매번 충돌
+                    member.setUsername("never");
+                }));
+    }
+
+    private Long save(Member member) {
+        Long id = memberRepository.save(member).getId();
+        saved.add(id);
+        return id;
+    }
+
+    private void concurrentAgeChange(Long id) {
+        TransactionTemplate other = new TransactionTemplate(transactionManager);
+        other.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        other.executeWithoutResult(status -> {
+            Member member = memberRepository.findById(id).get();
+            member.setAge(member.getAge() + 1);
+        });
+    }
+
+    private double retriedCount() {
+        return meterRegistry.get("datajpa.optimistic.conflicts").tag("outcome", "retried").counter().count();
+    }
+}